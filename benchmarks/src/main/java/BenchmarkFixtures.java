@@ -0,0 +1,145 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The BenchmarkFixtures class sets up the game objects for each benchmark and hands back the operation to time. <p>
+ * The game lives in the default package, which the JMH classes (in a named package) can't see,
+ * so they look these methods up by name; the lookup happens once per benchmark, outside the timed code.
+ */
+public class BenchmarkFixtures {
+    private static final String[] ITEMS = {"water", "rope", "machete", "horse", "boat", "boots", "shovel"};
+    private static final PrintStream NOWHERE = new PrintStream(OutputStream.nullOutputStream());
+    private static final int PLAYERS_PER_THREAD = 1000;
+    private static final AtomicLong LAST_PLAYER = new AtomicLong();
+
+    /**
+     * @return A normal-mode hunter carrying every item, with plenty of gold.
+     */
+    private static Hunter fullKitHunter() {
+        Hunter hunter = new Hunter(false, "bench", 1000);
+        for (String item : ITEMS) {
+            hunter.buyItem(item, 1);
+        }
+        hunter.treasureCollected("crown");
+        hunter.treasureCollected("gem");
+        return hunter;
+    }
+
+    private static Town town(Hunter hunter, GameRandom random) {
+        Town town = new Town(shop(), 0.5, EventSink.IGNORE, random);
+        town.hunterArrives(hunter);
+        return town;
+    }
+
+    private static Shop shop() {
+        return new Shop(0.5, null, NOWHERE, EventSink.IGNORE);
+    }
+
+    public static Supplier<Object> hasItemInKit() {
+        Hunter hunter = fullKitHunter();
+        return () -> hunter.hasItemInKit("shovel");
+    }
+
+    public static Supplier<Object> findItemInKit() {
+        Hunter hunter = fullKitHunter();
+        return () -> hunter.findItemInKit("shovel");
+    }
+
+    /** Buys an item and sells it back, so every call starts from the same kit. */
+    public static Supplier<Object> buyItem() {
+        Hunter hunter = new Hunter(false, "bench", 1000);
+        return () -> hunter.buyItem("shovel", 8) && hunter.sellItem("shovel", 8);
+    }
+
+    public static Supplier<Object> getInventory() {
+        Hunter hunter = fullKitHunter();
+        return hunter::getInventory;
+    }
+
+    public static Supplier<Object> infoString() {
+        Hunter hunter = fullKitHunter();
+        return hunter::infoString;
+    }
+
+    public static Supplier<Object> shopInventory() {
+        Shop shop = shop();
+        return shop::inventory;
+    }
+
+    public static Supplier<Object> getCostOfItem() {
+        Shop shop = shop();
+        return () -> shop.getCostOfItem("boots");
+    }
+
+    public static Supplier<Object> lookForTrouble() {
+        Hunter hunter = fullKitHunter();
+        Town town = town(hunter, new GameRandom(1));
+        return () -> {
+            town.lookForTrouble();
+            return town.getNews();
+        };
+    }
+
+    /** A town only gives up its gold once, so every call moves the town on and digs again. */
+    public static Supplier<Object> dig() {
+        Hunter hunter = fullKitHunter();
+        Town town = town(hunter, new GameRandom(1));
+        return () -> {
+            town.reset(0.5);
+            return town.Dig();
+        };
+    }
+
+    /** Buys back whatever broke on the way out, so the hunter can always leave. */
+    public static Supplier<Object> leaveTown() {
+        Hunter hunter = fullKitHunter();
+        Town town = town(hunter, new GameRandom(1));
+        Item neededItem = town.getTerrain().getItem();
+        return () -> {
+            boolean left = town.leaveTown();
+            hunter.buyItem(neededItem, 1);
+            hunter.changeGold(1);
+            return left;
+        };
+    }
+
+    /** One turn of the processChoice loop; a new game starts whenever the last one ends. */
+    public static Supplier<Object> turn() {
+        Agent agent = new SimpleAgent();
+        GameRandom random = new GameRandom(1);
+        TreasureHunter[] game = new TreasureHunter[1];
+        return () -> {
+            if (game[0] == null || game[0].isOver() || game[0].getTurns() >= 1000) {
+                game[0] = TreasureHunter.headless(random.split());
+                game[0].start("bench", "n");
+            }
+            game[0].playTurn(agent);
+            return game[0];
+        };
+    }
+
+    /** A leaderboard for every benchmark thread to share. */
+    public static Object leaderboard() {
+        return new Leaderboard();
+    }
+
+    /** One thread's players, each gaining or losing a little gold in turn, posted to the shared leaderboard. */
+    public static Supplier<Object> leaderboardUpdate(Object board) {
+        Leaderboard leaderboard = (Leaderboard) board;
+        long firstPlayer = LAST_PLAYER.getAndAdd(PLAYERS_PER_THREAD);
+        int[] gold = new int[PLAYERS_PER_THREAD];
+        Arrays.fill(gold, 20);
+        GameRandom random = new GameRandom(firstPlayer);
+        int[] next = new int[1];
+        return () -> {
+            int player = next[0];
+            next[0] = (player + 1) % PLAYERS_PER_THREAD;
+            gold[player] = Math.max(0, gold[player] + (int) (random.nextDouble() * 21) - 10);
+            leaderboard.update(firstPlayer + player, "bench", gold[player], 0, 0);
+            return leaderboard;
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package treasurehunter.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler and compares the results with the saved baseline.<p>
+ * Usage: java -jar target/benchmarks.jar [--save-baseline] [JMH options]<p>
+ * The baseline (baseline.txt) has one line per op: throughput in ops/us and bytes allocated per op.
+ * An op is flagged when its throughput drops, or its allocation grows, by more than 10%.
+ */
+public class BenchmarkMain {
+    private static final Path BASELINE = Paths.get("baseline.txt");
+    private static final double TOLERANCE = 0.10;
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        boolean saveBaseline = false;
+        List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--save-baseline")) {
+                saveBaseline = true;
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(new String[0])))
+                .include(HotPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        Map<String, double[]> current = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            String op = result.getParams().getParam("op");
+            Result allocation = result.getSecondaryResults().get(ALLOCATION);
+            double bytes = allocation == null ? Double.NaN : allocation.getScore();
+            current.put(op, new double[] {result.getPrimaryResult().getScore(), bytes});
+        }
+
+        if (saveBaseline) {
+            List<String> lines = new ArrayList<>();
+            lines.add("# op\tops/us\tB/op");
+            for (Map.Entry<String, double[]> entry : current.entrySet()) {
+                lines.add(String.format("%s\t%.3f\t%.1f", entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+            }
+            Files.write(BASELINE, lines, StandardCharsets.UTF_8);
+            System.out.println("Saved baseline to " + BASELINE.toAbsolutePath());
+        } else if (Files.exists(BASELINE)) {
+            compare(readBaseline(), current);
+        }
+    }
+
+    private static Map<String, double[]> readBaseline() throws IOException {
+        Map<String, double[]> baseline = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(BASELINE, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            baseline.put(fields[0], new double[] {Double.parseDouble(fields[1]), Double.parseDouble(fields[2])});
+        }
+        return baseline;
+    }
+
+    private static void compare(Map<String, double[]> baseline, Map<String, double[]> current) {
+        System.out.println();
+        System.out.printf("%-16s %12s %12s %8s %10s %10s%n", "op", "base ops/us", "ops/us", "change", "base B/op", "B/op");
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] now = entry.getValue();
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-16s %12s %12.3f %8s %10s %10.1f%n", entry.getKey(), "-", now[0], "", "-", now[1]);
+                continue;
+            }
+            double change = now[0] / before[0] - 1;
+            boolean slower = change < -TOLERANCE;
+            boolean allocatesMore = now[1] > before[1] * (1 + TOLERANCE) + 1;
+            System.out.printf("%-16s %12.3f %12.3f %+7.1f%% %10.1f %10.1f%s%n", entry.getKey(), before[0], now[0],
+                    change * 100, before[1], now[1], slower || allocatesMore ? "  <-- REGRESSION" : "");
+        }
+    }
+}
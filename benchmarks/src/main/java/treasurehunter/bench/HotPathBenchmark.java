@@ -0,0 +1,47 @@
+package treasurehunter.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the game's hot paths, one operation per call.<p>
+ * Each op names a method in BenchmarkFixtures that builds the objects and returns the operation;
+ * every op runs in its own fork, so the call through the Supplier stays monomorphic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+
+    @Param({"hasItemInKit", "findItemInKit", "buyItem", "getInventory", "infoString",
+            "shopInventory", "getCostOfItem", "lookForTrouble", "dig", "leaveTown", "turn"})
+    public String op;
+
+    private Supplier<Object> operation;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        operation = (Supplier<Object>) Class.forName("BenchmarkFixtures").getMethod(op).invoke(null);
+    }
+
+    @Benchmark
+    public Object run() {
+        return operation.get();
+    }
+}
@@ -0,0 +1,87 @@
+package treasurehunter.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Times score updates on one Leaderboard shared by every benchmark thread, each thread posting for its own players.<p>
+ * Usage: java -cp target/benchmarks.jar treasurehunter.bench.LeaderboardBenchmark [thread counts]<p>
+ * Runs the benchmark once per thread count (1, 2, 4, 8, 16 and 32 unless given) and prints the total
+ * update throughput for each, so the table shows how well updates scale as threads are added.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+    private static final int[] DEFAULT_THREADS = {1, 2, 4, 8, 16, 32};
+
+    @State(Scope.Benchmark)
+    public static class Board {
+        private Object leaderboard;
+
+        @Setup
+        public void setUp() throws ReflectiveOperationException {
+            leaderboard = Class.forName("BenchmarkFixtures").getMethod("leaderboard").invoke(null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Players {
+        private Supplier<Object> update;
+
+        @Setup
+        @SuppressWarnings("unchecked")
+        public void setUp(Board board) throws ReflectiveOperationException {
+            update = (Supplier<Object>) Class.forName("BenchmarkFixtures").getMethod("leaderboardUpdate", Object.class)
+                    .invoke(null, board.leaderboard);
+        }
+    }
+
+    @Benchmark
+    public Object update(Players players) {
+        return players.update.get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int[] threadCounts = DEFAULT_THREADS;
+        if (args.length > 0) {
+            threadCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                threadCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        double[] scores = new double[threadCounts.length];
+        for (int i = 0; i < threadCounts.length; i++) {
+            Options options = new OptionsBuilder()
+                    .include(LeaderboardBenchmark.class.getSimpleName())
+                    .threads(threadCounts[i])
+                    .build();
+            RunResult result = new Runner(options).runSingle();
+            scores[i] = result.getPrimaryResult().getScore();
+        }
+
+        System.out.println();
+        System.out.printf("%8s %14s %10s%n", "threads", "updates/us", "speedup");
+        for (int i = 0; i < threadCounts.length; i++) {
+            System.out.printf("%8d %14.3f %9.2fx%n", threadCounts[i], scores[i], scores[i] / scores[0]);
+        }
+    }
+}
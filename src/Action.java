@@ -0,0 +1,98 @@
+/**
+ * An Action is one turn of Treasure Hunter, the same as one choice from the menu. <p>
+ * There is one Action object for every possible turn, made when the class loads, so agents can hand
+ * them out as fast as they like without making garbage.
+ */
+public final class Action {
+    // constants
+    public static final Action EXPLORE = new Action('e', null);
+    public static final Action MOVE = new Action('m', null);
+    public static final Action TROUBLE = new Action('l', null);
+    public static final Action DIG = new Action('d', null);
+    public static final Action HUNT = new Action('h', null);
+    private static final Action[] BUYS = new Action[Item.count()];
+    private static final Action[] SELLS = new Action[Item.count()];
+    // instance variables
+    private final char choice;
+    private final Item item;
+
+    static {
+        for (int i = 0; i < Item.count(); i++) {
+            BUYS[i] = new Action('b', Item.get(i));
+            SELLS[i] = new Action('s', Item.get(i));
+        }
+    }
+
+    private Action(char choice, Item item) {
+        this.choice = choice;
+        this.item = item;
+    }
+
+    /**
+     * @param item The item to buy.
+     * @return The action of buying it at the shop.
+     */
+    public static Action buy(Item item) {
+        return BUYS[item.ordinal()];
+    }
+
+    /**
+     * @param item The item to sell.
+     * @return The action of selling it at the shop.
+     */
+    public static Action sell(Item item) {
+        return SELLS[item.ordinal()];
+    }
+
+    /**
+     * @return The menu letter for this action.
+     */
+    public char getChoice() {
+        return choice;
+    }
+
+    /**
+     * @return The item bought or sold, or null if this action isn't a trip to the shop.
+     */
+    public Item getItem() {
+        return item;
+    }
+
+    /**
+     * Takes this turn in a game.
+     *
+     * @param game The game to play it in.
+     */
+    public void apply(TreasureHunter game) {
+        switch (choice) {
+            case 'b':
+                game.buy(item.getName());
+                break;
+            case 's':
+                game.sell(item.getName());
+                break;
+            case 'e':
+                game.explore();
+                break;
+            case 'm':
+                game.move();
+                break;
+            case 'l':
+                game.lookForTrouble();
+                break;
+            case 'd':
+                game.dig();
+                break;
+            default:
+                game.hunt();
+                break;
+        }
+    }
+
+    public String toString() {
+        if (item == null) {
+            return String.valueOf(choice);
+        }
+        return choice + " " + item.getName();
+    }
+}
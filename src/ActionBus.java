@@ -0,0 +1,357 @@
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The ActionBus lets other threads watch every turn of the games played on one thread, without slowing the turns. <p>
+ * After each turn the game writes what the turn did -- the action, and the hunter's gold, kit and treasures and the
+ * town's flags after it -- into the next slot of a ring. The ring is made once: every field of every slot lives in
+ * one array per field, and publishing a turn only copies a few numbers into them, so it never allocates, never
+ * locks and never waits for a subscriber that can fall behind. <p>
+ * Every subscriber runs on its own thread and reads the ring at its own pace, a whole batch of turns at a time.
+ * A subscriber that falls a whole ring behind either loses the turns that were written over (DROP), or makes the
+ * game wait for it (BLOCK). Only BLOCK subscribers can ever hold up a game. <p>
+ * There must only ever be one thread publishing to a bus (it can play any number of games, one after another).
+ */
+public class ActionBus {
+    // constants
+    public static final int DROP = 0;
+    public static final int BLOCK = 1;
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long PARK_NANOS = 50_000;
+    // a slot's stamp while the game is writing it
+    private static final long WRITING = -1;
+    // instance variables -- the ring, one array per field
+    private int mask;
+    private AtomicLongArray stamps;
+    private long[] gameIds;
+    private String[] names;
+    private int[] turns;
+    private char[] actions;
+    private int[] goldBefore;
+    private int[] gold;
+    private int[] kits;
+    private int[] treasures;
+    private byte[] townFlags;
+    // the last turn published; only the game's thread writes it
+    private AtomicLong cursor;
+    private List<Consumer> consumers;
+    private volatile Consumer[] blockers;
+    private volatile boolean running;
+
+    /**
+     * @param capacity How many turns the ring holds; rounded up to a power of 2.
+     */
+    public ActionBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        mask = size - 1;
+        stamps = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            stamps.set(i, WRITING);
+        }
+        gameIds = new long[size];
+        names = new String[size];
+        turns = new int[size];
+        actions = new char[size];
+        goldBefore = new int[size];
+        gold = new int[size];
+        kits = new int[size];
+        treasures = new int[size];
+        townFlags = new byte[size];
+        cursor = new AtomicLong(-1);
+        consumers = new ArrayList<>();
+        blockers = new Consumer[0];
+        running = true;
+    }
+
+    /**
+     * Starts a subscriber on its own thread. Subscribers only see turns published after they subscribe.
+     *
+     * @param name The name of the subscriber's thread.
+     * @param subscriber The subscriber.
+     * @param policy DROP or BLOCK.
+     */
+    public synchronized void subscribe(String name, Subscriber subscriber, int policy) {
+        Consumer consumer = new Consumer(name, subscriber, policy, cursor.get() + 1);
+        consumers.add(consumer);
+        // the game only waits for a blocker whose thread is alive, so it is started before the game can see it
+        consumer.thread.start();
+        if (policy == BLOCK) {
+            List<Consumer> blocking = new ArrayList<>();
+            for (Consumer other : consumers) {
+                if (other.policy == BLOCK) {
+                    blocking.add(other);
+                }
+            }
+            blockers = blocking.toArray(new Consumer[0]);
+        }
+    }
+
+    /**
+     * Publishes one turn of a game; called by the game after every turn.
+     *
+     * @param gameId Which game it was.
+     * @param game The game, just after the turn.
+     * @param action The menu letter of the turn's action.
+     * @param goldBeforeTurn The hunter's gold before the turn.
+     */
+    public void publish(long gameId, TreasureHunter game, char action, int goldBeforeTurn) {
+        long sequence = cursor.get() + 1;
+        waitForBlockers(sequence);
+        int slot = (int) sequence & mask;
+        Hunter hunter = game.getHunter();
+        // a subscriber reading this slot now sees it change under it and drops it
+        stamps.set(slot, WRITING);
+        VarHandle.storeStoreFence();
+        gameIds[slot] = gameId;
+        names[slot] = hunter.getHunterName();
+        turns[slot] = game.getTurns();
+        actions[slot] = action;
+        goldBefore[slot] = goldBeforeTurn;
+        gold[slot] = hunter.getGold();
+        kits[slot] = hunter.getKit();
+        treasures[slot] = hunter.getTreasures();
+        townFlags[slot] = (byte) game.getCurrentTown().getFlags();
+        stamps.setRelease(slot, sequence);
+        cursor.setRelease(sequence);
+    }
+
+    /**
+     * Lets every subscriber finish the turns published so far, then stops them.
+     */
+    public void close() throws InterruptedException {
+        running = false;
+        List<Consumer> stopping;
+        synchronized (this) {
+            stopping = new ArrayList<>(consumers);
+        }
+        for (Consumer consumer : stopping) {
+            LockSupport.unpark(consumer.thread);
+            consumer.thread.join();
+        }
+    }
+
+    /**
+     * @return How many turns have been published.
+     */
+    public long getPublished() {
+        return cursor.get() + 1;
+    }
+
+    /**
+     * @return How many turns DROP subscribers have lost between them.
+     */
+    public synchronized long getDropped() {
+        long dropped = 0;
+        for (Consumer consumer : consumers) {
+            dropped += consumer.dropped;
+        }
+        return dropped;
+    }
+
+    /**
+     * Waits until every BLOCK subscriber is done with the slot the next turn goes in.
+     */
+    private void waitForBlockers(long sequence) {
+        long wrapPoint = sequence - (mask + 1);
+        int spins = 0;
+        for (Consumer consumer : blockers) {
+            while (consumer.sequence.get() <= wrapPoint && consumer.thread.isAlive()) {
+                if (++spins < SPINS_BEFORE_PARKING) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    /**
+     * A Subscriber is told about every turn it doesn't lose, in order, on its own thread.
+     */
+    public interface Subscriber {
+        /**
+         * @param turn The turn; only valid until this method returns.
+         * @param endOfBatch true for the last turn there is to read for now; a good time to flush.
+         */
+        void onTurn(Turn turn, boolean endOfBatch);
+    }
+
+    /**
+     * A Turn is one turn copied out of the ring; each subscriber has one, filled in again for every turn it reads.
+     */
+    public static class Turn {
+        // instance variables
+        private long sequence;
+        private long gameId;
+        private String hunterName;
+        private int turnNumber;
+        private char action;
+        private int goldBefore;
+        private int gold;
+        private int kit;
+        private int treasures;
+        private int townFlags;
+
+        /**
+         * @return The turn's place in everything published to the bus.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getGameId() {
+            return gameId;
+        }
+
+        public String getHunterName() {
+            return hunterName;
+        }
+
+        /**
+         * @return The game's turn count after this turn.
+         */
+        public int getTurnNumber() {
+            return turnNumber;
+        }
+
+        /**
+         * @return The menu letter of the turn's action.
+         */
+        public char getAction() {
+            return action;
+        }
+
+        public int getGoldBefore() {
+            return goldBefore;
+        }
+
+        public int getGold() {
+            return gold;
+        }
+
+        /**
+         * @return The hunter's kit after the turn, as a bitmask of Item bits.
+         */
+        public int getKit() {
+            return kit;
+        }
+
+        /**
+         * @return The hunter's treasures after the turn, as a bitmask of Treasure bits.
+         */
+        public int getTreasures() {
+            return treasures;
+        }
+
+        /**
+         * @return The town's flags after the turn, as Town.getFlags() packs them.
+         */
+        public int getTownFlags() {
+            return townFlags;
+        }
+
+        public boolean isWon() {
+            return (treasures & Treasure.WIN_MASK) == Treasure.WIN_MASK;
+        }
+
+        public boolean isLost() {
+            return (townFlags & Town.GAME_LOST) != 0;
+        }
+    }
+
+    /**
+     * One subscriber's thread and how far it has read.
+     */
+    private class Consumer implements Runnable {
+        private Subscriber subscriber;
+        private int policy;
+        private final Thread thread;
+        // the last turn this subscriber is done with
+        private AtomicLong sequence;
+        private long dropped;
+        private Turn turn;
+
+        Consumer(String name, Subscriber subscriber, int policy, long first) {
+            this.subscriber = subscriber;
+            this.policy = policy;
+            sequence = new AtomicLong(first - 1);
+            turn = new Turn();
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            int spins = 0;
+            while (true) {
+                long available = cursor.get();
+                if (available < next) {
+                    if (!running && cursor.get() < next) {
+                        return;
+                    }
+                    if (++spins < SPINS_BEFORE_PARKING) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(PARK_NANOS);
+                    }
+                    continue;
+                }
+                spins = 0;
+                next = readBatch(next, available);
+                sequence.setRelease(next - 1);
+            }
+        }
+
+        /**
+         * Hands the subscriber every turn from next to available.
+         *
+         * @return The next turn to read.
+         */
+        private long readBatch(long next, long available) {
+            long oldest = available - mask;
+            if (next < oldest) {
+                // only a DROP subscriber can fall this far behind
+                dropped += oldest - next;
+                next = oldest;
+            }
+            for (; next <= available; next++) {
+                if (read(next)) {
+                    subscriber.onTurn(turn, next == available);
+                } else {
+                    dropped++;
+                }
+            }
+            return next;
+        }
+
+        /**
+         * Copies a turn out of the ring.
+         *
+         * @return false if the game wrote over the turn's slot before it could be copied.
+         */
+        private boolean read(long expected) {
+            int slot = (int) expected & mask;
+            if (stamps.get(slot) != expected) {
+                return false;
+            }
+            turn.sequence = expected;
+            turn.gameId = gameIds[slot];
+            turn.hunterName = names[slot];
+            turn.turnNumber = turns[slot];
+            turn.action = actions[slot];
+            turn.goldBefore = goldBefore[slot];
+            turn.gold = gold[slot];
+            turn.kit = kits[slot];
+            turn.treasures = treasures[slot];
+            turn.townFlags = townFlags[slot];
+            // a BLOCK subscriber's slot can't be written over, but a DROP subscriber's can, mid-copy
+            VarHandle.loadLoadFence();
+            return stamps.get(slot) == expected;
+        }
+    }
+}
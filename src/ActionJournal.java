@@ -0,0 +1,184 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ActionJournal records every game played through it so the games can be audited and replayed. <p>
+ * Each choice, shop answer and random number is written as one fixed-width 16 byte record into a
+ * memory-mapped segment file; nothing is formatted as text. Records are only ever appended, and when a segment
+ * is full the journal rolls over to the next one. Any number of games on any number of threads can share
+ * one journal: a writer claims its slot with a single atomic increment and then writes straight into the mapping. <p>
+ * Record layout: game id (int), record type (byte), code (byte), two unused bytes, value (long).
+ * The type is written last, so a record whose type is 0 has never been finished. Writers can finish their slots
+ * out of order, so an unfinished slot can sit in front of finished ones; readers skip it and carry on.
+ */
+public class ActionJournal implements Closeable {
+    // constants
+    public static final int RECORD_SIZE = 16;
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 22; // 64 MB segments
+    // record types
+    public static final byte START = 1;  // code: mode letter
+    public static final byte NAME = 2;   // value: the next 8 bytes of the hunter's name
+    public static final byte CHOICE = 3; // code: menu letter, or '?' for anything that isn't one
+    public static final byte ITEM = 4;   // code: Item ordinal, or -1 for something that isn't an item
+    public static final byte ANSWER = 5; // code: 'y' or 'n'
+    public static final byte RANDOM = 6; // value: the bits of a random double
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // instance variables
+    private Path directory;
+    private int recordsPerSegment;
+    private AtomicInteger nextGameId;
+    private volatile Segment current;
+    private List<Segment> segments;
+
+    /**
+     * Opens a journal, creating the directory if needed. New records always go into a new segment,
+     * after the ones already there.
+     *
+     * @param directory Where the segment files live.
+     * @param recordsPerSegment How many records fit in one segment file.
+     */
+    public ActionJournal(Path directory, int recordsPerSegment) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        Files.createDirectories(directory);
+        List<Path> existing = segmentFiles(directory);
+        int lastGameId = 0;
+        for (Path file : existing) {
+            ByteBuffer records = map(file);
+            for (int i = 0; i < records.limit() / RECORD_SIZE; i++) {
+                if (records.get(i * RECORD_SIZE + 4) != 0) {
+                    lastGameId = Math.max(lastGameId, records.getInt(i * RECORD_SIZE));
+                }
+            }
+        }
+        nextGameId = new AtomicInteger(lastGameId + 1);
+        segments = new ArrayList<>();
+        current = openSegment(existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1)) + 1);
+    }
+
+    public ActionJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * @return A handle for recording one new game.
+     */
+    public JournalSession newSession() {
+        return new JournalSession(this, nextGameId.getAndIncrement());
+    }
+
+    /**
+     * Appends one record.
+     */
+    void append(int gameId, byte type, byte code, long value) {
+        Segment segment = current;
+        int slot = segment.next.getAndIncrement();
+        while (slot >= recordsPerSegment) {
+            segment = roll(segment);
+            slot = segment.next.getAndIncrement();
+        }
+        int offset = slot * RECORD_SIZE;
+        segment.records.putInt(offset, gameId);
+        segment.records.put(offset + 5, code);
+        segment.records.putLong(offset + 8, value);
+        // the type marks the record as done, so it mustn't be seen before the rest of the record
+        VarHandle.storeStoreFence();
+        segment.records.put(offset + 4, type);
+    }
+
+    /**
+     * Moves on to a new segment, unless another thread already has.
+     */
+    private synchronized Segment roll(Segment full) {
+        if (current == full) {
+            try {
+                current = openSegment(full.number + 1);
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't open the next journal segment", e);
+            }
+        }
+        return current;
+    }
+
+    private Segment openSegment(int number) throws IOException {
+        Path file = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+            records.order(ByteOrder.LITTLE_ENDIAN);
+            Segment segment = new Segment(number, records);
+            segments.add(segment);
+            return segment;
+        }
+    }
+
+    /**
+     * Writes everything recorded so far to disk.
+     */
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.records.force();
+        }
+    }
+
+    /**
+     * @param directory A journal directory.
+     * @return The journal's segment files, oldest first.
+     */
+    public static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Maps a segment file for reading.
+     *
+     * @param file The segment file.
+     * @return The file's records.
+     */
+    public static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * One mapped segment file and the next free slot in it.
+     */
+    private static class Segment {
+        final int number;
+        final MappedByteBuffer records;
+        final AtomicInteger next;
+
+        Segment(int number, MappedByteBuffer records) {
+            this.number = number;
+            this.records = records;
+            this.next = new AtomicInteger();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * An Agent plays Treasure Hunter in place of a person at the keyboard: where the game would read the
+ * player's next choice, it asks the agent instead. <p>
+ * The agent only gets to look at the game through a GameView, so it can't change anything except by
+ * the action it picks. One Agent object may be playing many games on many threads at once,
+ * so anything it remembers has to live in the game, not in the agent.
+ */
+public interface Agent {
+    /**
+     * Picks the next turn.
+     *
+     * @param view What the player can see of the game; it is never over when this is called.
+     * @return The action to take.
+     */
+    Action nextAction(GameView view);
+}
@@ -0,0 +1,339 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The BalanceOptimizer searches for Rules that make each mode as hard, and its games as long, as wanted. <p>
+ * Every number in the Rules is a parameter, and they are tuned one at a time (coordinate descent): a parameter is
+ * nudged up and down, and whichever nudge brings the modes closest to their targets is kept. Once neither nudge
+ * helps, the parameter is tried again later with a nudge half the size, until no parameter can be nudged any
+ * closer or every target is met. <p>
+ * Each set of rules is measured by playing SimpleAgent games with a MonteCarloRunner, a BatchSimulator at a time,
+ * across a fork-join pool. Every set is measured on the same numbered games, so two sets are always compared on
+ * the same luck. A mode stops being played as soon as the confidence intervals of its win rate and of its
+ * average game length are tight enough, so most sets only take a few thousand games a mode. <p>
+ * Usage: java BalanceOptimizer [games] [seed] [threads] [mode=winRate:turns ...]
+ */
+public class BalanceOptimizer {
+    // constants
+    public static final double WIN_TOLERANCE = 0.02;
+    public static final double TURNS_TOLERANCE = 1;
+    private static final String[] DEFAULT_TARGETS = {"e=0.85:18", "n=0.55:20", "h=0.35:22"};
+    private static final int MAX_TURNS = 1000;
+    private static final int MAX_SWEEPS = 100;
+    // how many standard deviations the confidence intervals are wide: 95% of them hold the true value
+    private static final double Z = 1.96;
+    // the first nudge for odds and markdowns, and the smallest one worth trying
+    private static final double FIRST_STEP = 0.1;
+    private static final double SMALLEST_STEP = 0.01;
+    // odds and markdowns are kept to 4 decimal places, so they stay readable
+    private static final double PLACES = 10000;
+    // instance variables
+    private ForkJoinPool pool;
+    private long seed;
+    private int maxGames;
+    private int gamesPerRound;
+    private List<Target> targets;
+    private PrintStream out;
+    private int evaluations;
+    private long gamesPlayed;
+
+    /**
+     * @param pool The pool that plays the games.
+     * @param seed The seed for the games every set of rules is measured on.
+     * @param maxGames The most games played in each mode to measure one set of rules.
+     * @param targets What each mode should come out at.
+     * @param out Where each improvement is reported as it is found.
+     */
+    public BalanceOptimizer(ForkJoinPool pool, long seed, int maxGames, List<Target> targets, PrintStream out) {
+        this.pool = pool;
+        this.seed = seed;
+        this.maxGames = maxGames;
+        this.targets = targets;
+        this.out = out;
+        // enough games each round to keep every worker busy
+        gamesPerRound = Math.max(4096, 2048 * pool.getParallelism());
+    }
+
+    /**
+     * @param targets The modes being tuned.
+     * @return Every parameter that matters to those modes: their own starting gold, markdown and toughness,
+     * and every parameter shared by all the modes, except which item each terrain takes, which isn't a number.
+     */
+    public static List<String> parametersFor(List<Target> targets) {
+        List<String> parameters = new ArrayList<>();
+        for (String name : Rules.parameterNames()) {
+            int mode = Rules.modeOf(name);
+            boolean tuned = mode < 0 && !Rules.isItem(name);
+            for (Target target : targets) {
+                tuned |= Rules.mode(target.mode) == mode;
+            }
+            if (tuned) {
+                parameters.add(name);
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Tunes the rules until every target is met, or no parameter can be nudged any closer.
+     *
+     * @param start The rules to start from.
+     * @param parameters The names of the parameters to tune.
+     * @return The best rules found.
+     */
+    public Rules optimize(Rules start, List<String> parameters) {
+        double[] steps = new double[parameters.size()];
+        for (int p = 0; p < steps.length; p++) {
+            steps[p] = firstStep(parameters.get(p), start.get(parameters.get(p)));
+        }
+        Rules best = start;
+        Measurement measured = measure(best);
+        out.printf("start: %s%n", measured.infoString());
+        boolean settled = false;
+        for (int sweep = 0; sweep < MAX_SWEEPS && !settled && !measured.met; sweep++) {
+            settled = true;
+            for (int p = 0; p < steps.length && !measured.met; p++) {
+                if (steps[p] == 0) {
+                    continue;
+                }
+                settled = false;
+                String name = parameters.get(p);
+                double value = best.get(name);
+                Rules nudged = null;
+                for (double tried : new double[] {value + steps[p], value - steps[p]}) {
+                    tried = Math.round(tried * PLACES) / PLACES;
+                    tried = Math.max(Rules.lowest(name), Math.min(Rules.highest(name), tried));
+                    if (tried == value) {
+                        continue;
+                    }
+                    Rules candidate;
+                    try {
+                        candidate = best.with(name, tried);
+                    } catch (IllegalArgumentException e) {
+                        // the last terrain or treasure with a weight can't lose it
+                        continue;
+                    }
+                    Measurement candidateMeasured = measure(candidate);
+                    if (candidateMeasured.loss < measured.loss) {
+                        nudged = candidate;
+                        measured = candidateMeasured;
+                    }
+                }
+                if (nudged == null) {
+                    steps[p] = smallerStep(name, steps[p]);
+                } else {
+                    out.printf("%s %s -> %s: %s%n", name, value, nudged.get(name), measured.infoString());
+                    best = nudged;
+                }
+            }
+        }
+        out.printf("%s after %d sets of rules and %d games%n", measured.met ? "every target met" : "settled",
+                evaluations, gamesPlayed);
+        return best;
+    }
+
+    /**
+     * Plays each target's mode by a set of rules until its results are known well enough.
+     *
+     * @param rules The rules to play by.
+     * @return The results, one GameStats per target.
+     */
+    public GameStats[] play(Rules rules) {
+        MonteCarloRunner runner = new MonteCarloRunner(pool, new SimpleAgent(), MAX_TURNS, seed, rules);
+        GameStats[] stats = new GameStats[targets.size()];
+        for (int t = 0; t < stats.length; t++) {
+            Target target = targets.get(t);
+            stats[t] = new GameStats();
+            int played = 0;
+            do {
+                int games = Math.min(gamesPerRound, maxGames - played);
+                stats[t].merge(runner.runBatched(target.mode, played, games));
+                played += games;
+            } while (played < maxGames && !target.isPrecise(stats[t]));
+            gamesPlayed += played;
+        }
+        return stats;
+    }
+
+    private Measurement measure(Rules rules) {
+        evaluations++;
+        return new Measurement(play(rules));
+    }
+
+    private static double firstStep(String name, double value) {
+        if (Rules.isWhole(name)) {
+            return Math.max(1, Math.round(value / 4));
+        }
+        return FIRST_STEP;
+    }
+
+    /**
+     * @return The next, smaller nudge to try, or 0 once the nudges are too small to matter.
+     */
+    private static double smallerStep(String name, double step) {
+        if (Rules.isWhole(name)) {
+            return Math.floor(step / 2);
+        }
+        if (step / 2 < SMALLEST_STEP) {
+            return 0;
+        }
+        return step / 2;
+    }
+
+    /**
+     * @return How far apart the two ends of a 95% confidence interval are from the middle.
+     */
+    static double halfWidth(double standardDeviation, long games) {
+        return Z * standardDeviation / Math.sqrt(games);
+    }
+
+    /**
+     * A Target is what one mode should come out at: how often SimpleAgent wins it, and how many turns its games
+     * take on average, each give or take a tolerance.
+     */
+    public static class Target {
+        // instance variables
+        private String mode;
+        private double winRate;
+        private double turns;
+
+        /**
+         * @param mode The mode letter.
+         * @param winRate How often the mode should be won, from 0 to 1.
+         * @param turns How many turns a game of the mode should take on average, won or lost.
+         */
+        public Target(String mode, double winRate, double turns) {
+            if (Rules.mode(mode) < 0) {
+                throw new IllegalArgumentException("There is no mode " + mode);
+            }
+            this.mode = mode;
+            this.winRate = winRate;
+            this.turns = turns;
+        }
+
+        /**
+         * @param target A target written as mode=winRate:turns, e.g. h=0.35:22.
+         * @return The target.
+         */
+        public static Target parse(String target) {
+            String[] parts = target.split("[=:]");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("A target is written mode=winRate:turns, not " + target);
+            }
+            return new Target(parts[0], Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public double getWinRate() {
+            return winRate;
+        }
+
+        public double getTurns() {
+            return turns;
+        }
+
+        /**
+         * @return true once the results are known to within half the tolerances.
+         */
+        boolean isPrecise(GameStats stats) {
+            double winRate = stats.getWinRate();
+            return halfWidth(Math.sqrt(winRate * (1 - winRate)), stats.getGames()) <= WIN_TOLERANCE / 2
+                    && halfWidth(stats.getTurnsStandardDeviation(), stats.getGames()) <= TURNS_TOLERANCE / 2;
+        }
+
+        boolean isMet(GameStats stats) {
+            return Math.abs(stats.getWinRate() - winRate) <= WIN_TOLERANCE
+                    && Math.abs(stats.getAverageTurns() - turns) <= TURNS_TOLERANCE;
+        }
+
+        /**
+         * @return How far the results are from the target, in tolerances, squared and added up.
+         */
+        double loss(GameStats stats) {
+            double winError = (stats.getWinRate() - winRate) / WIN_TOLERANCE;
+            double turnsError = (stats.getAverageTurns() - turns) / TURNS_TOLERANCE;
+            return winError * winError + turnsError * turnsError;
+        }
+
+        /**
+         * @return A one-line report of the results against the target.
+         */
+        String infoString(GameStats stats) {
+            double winRate = stats.getWinRate();
+            return String.format("%s won %.1f%% +- %.1f (want %.1f), %.1f +- %.1f turns (want %.1f)", mode,
+                    winRate * 100, halfWidth(Math.sqrt(winRate * (1 - winRate)), stats.getGames()) * 100,
+                    this.winRate * 100, stats.getAverageTurns(),
+                    halfWidth(stats.getTurnsStandardDeviation(), stats.getGames()), turns);
+        }
+    }
+
+    /**
+     * How one set of rules did against every target.
+     */
+    private class Measurement {
+        private GameStats[] stats;
+        private double loss;
+        private boolean met;
+
+        Measurement(GameStats[] stats) {
+            this.stats = stats;
+            met = true;
+            for (int t = 0; t < stats.length; t++) {
+                loss += targets.get(t).loss(stats[t]);
+                met &= targets.get(t).isMet(stats[t]);
+            }
+        }
+
+        String infoString() {
+            StringBuilder str = new StringBuilder(String.format("loss %.2f", loss));
+            for (int t = 0; t < stats.length; t++) {
+                str.append("; ").append(targets.get(t).infoString(stats[t]));
+            }
+            return str.toString();
+        }
+    }
+
+    /**
+     * Tunes the standard rules and prints the rules it ends up with.
+     *
+     * @param args most games per mode for each set of rules, seed, threads, then targets written
+     *             mode=winRate:turns (all optional)
+     */
+    public static void main(String[] args) {
+        int games = 100000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> written = new ArrayList<>(List.of(DEFAULT_TARGETS));
+        if (args.length > 0) {
+            games = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            seed = Long.parseLong(args[1]);
+        }
+        if (args.length > 2) {
+            threads = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3) {
+            written = List.of(args).subList(3, args.length);
+        }
+        List<Target> targets = new ArrayList<>();
+        for (String target : written) {
+            targets.add(Target.parse(target));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        BalanceOptimizer optimizer = new BalanceOptimizer(pool, seed, games, targets, System.out);
+        Rules rules = optimizer.optimize(Rules.STANDARD, parametersFor(targets));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("%ntuned in %.1f s on %d threads; the rules that changed:%n", seconds, threads);
+        System.out.println(rules.infoString());
+    }
+}
@@ -0,0 +1,337 @@
+/**
+ * The BatchSimulator plays a whole batch of headless games at once, the way SimpleAgent would play each of them. <p>
+ * Instead of a Hunter, Town and Shop per game, every part of every game lives in one array per field:
+ * gold, kit, treasures, terrain, town flags, turns and the game's random seed. Each step, every game still
+ * going picks its move, the games are sorted by move, and then each move is played for all of its games in
+ * one tight loop over the arrays, so the batch moves forward in lockstep. Finished games drop out of the
+ * batch as they go. <p>
+ * The rules are the same as Town, Shop and Hunter, and the random numbers are drawn in the same order from
+ * the same generators, so game i of a batch plays out exactly like game i of a MonteCarloRunner run with a
+ * SimpleAgent and the same Rules. Nothing is printed and no metrics are recorded.
+ */
+public class BatchSimulator {
+    // constants -- the moves
+    private static final int HUNT = 0;
+    private static final int DIG = 1;
+    private static final int MOVE = 2;
+    private static final int BUY = 3;
+    private static final int TROUBLE = 4;
+    private static final int MOVES = 5;
+    private static final int SHOVEL = Item.SHOVEL.getBit();
+    private static final int SWORD = Item.SWORD.getBit();
+    // instance variables -- the mode's rules
+    private boolean samurai;
+    private double toughness;
+    private int startGold;
+    private int startKit;
+    private int refill;
+    private int[] costs;
+    // the odds, as Town draws them
+    private double toughTroubleChance;
+    private double mildTroubleChance;
+    private int brawlGold;
+    private double digChance;
+    private int digGold;
+    private double breakChance;
+    private Rules rules;
+    // the item needed to leave a town, by terrain id
+    private int[] neededItems;
+    // the games
+    private int size;
+    private long[] seeds;
+    private int[] gold;
+    private int[] kit;
+    private int[] treasures;
+    private int[] terrain;
+    private int[] flags;
+    private int[] turns;
+    // the games still going, and the games making each move this step
+    private int[] playing;
+    private int playingCount;
+    private int[][] byMove;
+    private int[] byMoveCount;
+    private int[] buying;
+
+    /**
+     * @param mode The mode letter every game in the batch is played in.
+     * @param size How many games the batch holds.
+     */
+    public BatchSimulator(String mode, int size) {
+        this(mode, size, Rules.STANDARD);
+    }
+
+    /**
+     * @param mode The mode letter every game in the batch is played in.
+     * @param size How many games the batch holds.
+     * @param rules The rules every game in the batch is played by.
+     */
+    public BatchSimulator(String mode, int size, Rules rules) {
+        // the mode's rules come from a real game, so they can't drift apart
+        TreasureHunter game = TreasureHunter.headless(0);
+        game.playBy(rules);
+        game.start("batch", mode);
+        samurai = game.getHunter().isSamurai();
+        toughness = game.getToughness();
+        startGold = game.getHunter().getGold();
+        startKit = game.getHunter().getKit();
+        // test mode fills the kit up again in every town
+        if ((game.getModeFlags() & TreasureHunter.TEST_MODE) != 0) {
+            refill = startKit;
+        }
+        PriceTable prices = game.getPrices();
+        costs = new int[Item.count()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = prices.getCost(Item.get(i));
+        }
+        toughTroubleChance = rules.getTroubleChance(true);
+        mildTroubleChance = rules.getTroubleChance(false);
+        brawlGold = rules.getBrawlGold();
+        digChance = rules.getDigChance();
+        digGold = rules.getDigGold();
+        breakChance = rules.getBreakChance();
+        this.rules = rules;
+        neededItems = new int[Terrain.count()];
+        for (int id = 0; id < neededItems.length; id++) {
+            neededItems[id] = rules.getTerrain(id).getItem().getBit();
+        }
+
+        this.size = size;
+        seeds = new long[size];
+        gold = new int[size];
+        kit = new int[size];
+        treasures = new int[size];
+        terrain = new int[size];
+        flags = new int[size];
+        turns = new int[size];
+        playing = new int[size];
+        byMove = new int[MOVES][size];
+        byMoveCount = new int[MOVES];
+        buying = new int[size];
+    }
+
+    /**
+     * Starts a new game in every slot of the batch; slot i plays game number firstGame + i of the series.
+     *
+     * @param seed The seed for the whole series, as passed to GameRandom.forGame().
+     * @param firstGame The number of the game in the first slot.
+     * @param games How many slots to fill, up to the batch size.
+     */
+    public void start(long seed, long firstGame, int games) {
+        playingCount = games;
+        for (int i = 0; i < games; i++) {
+            seeds[i] = GameRandom.gameSeed(seed, firstGame + i);
+            gold[i] = startGold;
+            kit[i] = startKit;
+            treasures[i] = 0;
+            turns[i] = 0;
+            playing[i] = i;
+        }
+        // the first town: the terrain is drawn first, then the toughness
+        arrive(playing, games);
+    }
+
+    /**
+     * Plays every game until it is won, lost or out of turns.
+     *
+     * @param maxTurns Games still going after this many turns are stopped and counted as neither won nor lost.
+     */
+    public void play(int maxTurns) {
+        while (playingCount > 0) {
+            step(maxTurns);
+        }
+    }
+
+    /**
+     * Plays one turn of every game still going.
+     *
+     * @param maxTurns Games that reach this many turns drop out of the batch.
+     */
+    public void step(int maxTurns) {
+        chooseMoves();
+        hunt(byMove[HUNT], byMoveCount[HUNT]);
+        dig(byMove[DIG], byMoveCount[DIG]);
+        move(byMove[MOVE], byMoveCount[MOVE]);
+        buy(byMove[BUY], byMoveCount[BUY]);
+        lookForTrouble(byMove[TROUBLE], byMoveCount[TROUBLE]);
+
+        int stillPlaying = 0;
+        for (int p = 0; p < playingCount; p++) {
+            int i = playing[p];
+            turns[i]++;
+            if (!isWon(i) && (flags[i] & Town.GAME_LOST) == 0 && turns[i] < maxTurns) {
+                playing[stillPlaying++] = i;
+            }
+        }
+        playingCount = stillPlaying;
+    }
+
+    /**
+     * Adds the results of the games in the first slots of the batch.
+     *
+     * @param stats Where to add them.
+     * @param games How many slots to add, as passed to start().
+     */
+    public void addTo(GameStats stats, int games) {
+        for (int i = 0; i < games; i++) {
+            stats.add(turns[i], isWon(i), (flags[i] & Town.GAME_LOST) != 0, gold[i]);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private boolean isWon(int i) {
+        return (treasures[i] & Treasure.WIN_MASK) == Treasure.WIN_MASK;
+    }
+
+    /**
+     * Sorts the games still going by the move SimpleAgent would make.
+     */
+    private void chooseMoves() {
+        for (int m = 0; m < MOVES; m++) {
+            byMoveCount[m] = 0;
+        }
+        for (int p = 0; p < playingCount; p++) {
+            int i = playing[p];
+            int neededItem = neededItems[terrain[i]];
+            int move;
+            if ((flags[i] & Town.SEARCHED) == 0) {
+                move = HUNT;
+            } else if ((kit[i] & SHOVEL) != 0 && (flags[i] & Town.GOLD_FOUND) == 0) {
+                move = DIG;
+            } else if (samurai && (kit[i] & SWORD) == 0) {
+                move = BUY;
+                buying[i] = Item.SWORD.ordinal();
+            } else if ((kit[i] & neededItem) != 0) {
+                move = MOVE;
+            } else if (gold[i] >= cost(i, Integer.numberOfTrailingZeros(neededItem))) {
+                move = BUY;
+                buying[i] = Integer.numberOfTrailingZeros(neededItem);
+            } else if ((kit[i] & SHOVEL) == 0 && gold[i] >= cost(i, Item.SHOVEL.ordinal())) {
+                move = BUY;
+                buying[i] = Item.SHOVEL.ordinal();
+            } else {
+                move = TROUBLE;
+            }
+            byMove[move][byMoveCount[move]++] = i;
+        }
+    }
+
+    /**
+     * @return What the shop charges game i for an item; a samurai with a sword pays nothing.
+     */
+    private int cost(int i, int item) {
+        if ((kit[i] & SWORD) != 0) {
+            return 0;
+        }
+        return costs[item];
+    }
+
+    /**
+     * Draws the next random number of game i.
+     */
+    private double nextDouble(int i) {
+        long seed = GameRandom.advance(seeds[i]);
+        seeds[i] = seed;
+        return GameRandom.toDouble(seed);
+    }
+
+    // The moves, each played for a list of games -- the same rules as Town, Shop and Hunter
+
+    /**
+     * Town.getNewTerrain() and the toughness roll.
+     */
+    private void arrive(int[] games, int count) {
+        for (int g = 0; g < count; g++) {
+            int i = games[g];
+            terrain[i] = rules.drawTerrainId(nextDouble(i));
+            if (nextDouble(i) < toughness) {
+                flags[i] = Town.TOUGH;
+            } else {
+                flags[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Town.lookForTreasure(), for towns that haven't been searched.
+     */
+    private void hunt(int[] games, int count) {
+        for (int g = 0; g < count; g++) {
+            int i = games[g];
+            treasures[i] |= 1 << rules.drawTreasure(nextDouble(i));
+            flags[i] |= Town.SEARCHED;
+        }
+    }
+
+    /**
+     * Town.Dig(), for hunters with a shovel who haven't dug here yet.
+     */
+    private void dig(int[] games, int count) {
+        for (int g = 0; g < count; g++) {
+            int i = games[g];
+            double rand = nextDouble(i);
+            int dug = (int) (nextDouble(i) * digGold) + 1;
+            if (rand < digChance) {
+                gold[i] += dug;
+            }
+            flags[i] |= Town.GOLD_FOUND;
+        }
+    }
+
+    /**
+     * Town.leaveTown() and arriving in the next town, for hunters with the item they need.
+     */
+    private void move(int[] games, int count) {
+        for (int g = 0; g < count; g++) {
+            int i = games[g];
+            if (nextDouble(i) < breakChance) {
+                kit[i] &= ~neededItems[terrain[i]];
+            }
+            kit[i] |= refill;
+        }
+        arrive(games, count);
+    }
+
+    /**
+     * Shop.buyItem() and Hunter.buyItem().
+     */
+    private void buy(int[] games, int count) {
+        for (int g = 0; g < count; g++) {
+            int i = games[g];
+            int item = buying[i];
+            int cost = cost(i, item);
+            int bit = 1 << item;
+            if ((cost > 0 || samurai) && gold[i] >= cost && (kit[i] & bit) == 0) {
+                gold[i] -= cost;
+                kit[i] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Town.lookForTrouble().
+     */
+    private void lookForTrouble(int[] games, int count) {
+        for (int g = 0; g < count; g++) {
+            int i = games[g];
+            double noTroubleChance = mildTroubleChance;
+            if ((flags[i] & Town.TOUGH) != 0) {
+                noTroubleChance = toughTroubleChance;
+            }
+            if (nextDouble(i) > noTroubleChance) {
+                continue;
+            }
+            int goldDiff = (int) (nextDouble(i) * brawlGold) + 1;
+            if (nextDouble(i) > noTroubleChance) {
+                gold[i] += goldDiff;
+            } else if (!samurai || (kit[i] & SWORD) == 0) {
+                gold[i] -= goldDiff;
+                if (gold[i] < 0) {
+                    flags[i] |= Town.GAME_LOST;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * The BrawlerAgent makes its money with its fists: it never buys a shovel, and picks fights until it can
+ * afford whatever gets it out of town.
+ */
+public class BrawlerAgent implements Agent {
+
+    public Action nextAction(GameView view) {
+        Item neededItem = view.getNeededItem();
+
+        if (!view.isSearched()) {
+            return Action.HUNT;
+        } else if (view.isSamurai() && !view.hasItem(Item.SWORD)) {
+            return Action.buy(Item.SWORD);
+        } else if (view.hasItem(neededItem)) {
+            return Action.MOVE;
+        } else if (view.canAfford(neededItem)) {
+            return Action.buy(neededItem);
+        } else {
+            return Action.TROUBLE;
+        }
+    }
+}
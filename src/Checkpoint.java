@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A Checkpoint is a file holding the snapshots of many games, written in one go and restored one game at a time. <p>
+ * The snapshots are written straight into a memory-mapped file, and opening a checkpoint only maps it:
+ * a game is decoded the first time someone asks for it, so a server can restore its sessions as players come back. <p>
+ * File layout: magic (int), game count (int), the offset of each snapshot (int each), then the snapshots.
+ */
+public class Checkpoint {
+    // constants
+    public static final int MAGIC = 0x54484350; // "THCP"
+    // instance variables
+    private ByteBuffer file;
+    private int count;
+    private AtomicReferenceArray<TreasureHunter> restored;
+
+    private Checkpoint(ByteBuffer file) {
+        if (file.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a Treasure Hunter checkpoint");
+        }
+        this.file = file;
+        count = file.getInt(4);
+        restored = new AtomicReferenceArray<>(count);
+    }
+
+    /**
+     * Saves every game into a new checkpoint file, replacing any file already there.
+     *
+     * @param path The checkpoint file.
+     * @param games The games to save; all of them must have started.
+     */
+    public static void save(Path path, List<TreasureHunter> games) throws IOException {
+        long total = 8 + 4L * games.size();
+        for (TreasureHunter game : games) {
+            total += GameSnapshot.size(game);
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many games for one checkpoint file");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, total);
+            buffer.putInt(MAGIC);
+            buffer.putInt(games.size());
+            int index = buffer.position();
+            buffer.position(index + 4 * games.size());
+            for (TreasureHunter game : games) {
+                buffer.putInt(index, buffer.position());
+                index += 4;
+                GameSnapshot.write(game, buffer);
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * Opens a checkpoint file without restoring any of its games yet.
+     *
+     * @param path The checkpoint file.
+     * @return The checkpoint.
+     */
+    public static Checkpoint open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Checkpoint(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return How many games the checkpoint holds.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Restores a game the first time it is asked for; after that the same game is handed back.
+     *
+     * @param index The game's position in the list it was saved from.
+     * @param scanner Where the game reads the player's input from, if this restores it.
+     * @param out Where the game is displayed, if this restores it.
+     * @return The game.
+     */
+    public TreasureHunter get(int index, Scanner scanner, PrintStream out) {
+        TreasureHunter game = restored.get(index);
+        if (game == null) {
+            ByteBuffer snapshot = file.duplicate();
+            snapshot.position(file.getInt(8 + 4 * index));
+            game = GameSnapshot.read(snapshot, scanner, out);
+            if (!restored.compareAndSet(index, null, game)) {
+                game = restored.get(index);
+            }
+        }
+        return game;
+    }
+}
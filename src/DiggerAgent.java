@@ -0,0 +1,26 @@
+/**
+ * The DiggerAgent buys a shovel before anything else and digs in every town, and only brawls when
+ * digging hasn't paid for the way out.
+ */
+public class DiggerAgent implements Agent {
+
+    public Action nextAction(GameView view) {
+        Item neededItem = view.getNeededItem();
+
+        if (!view.isSearched()) {
+            return Action.HUNT;
+        } else if (!view.hasItem(Item.SHOVEL) && view.canAfford(Item.SHOVEL)) {
+            return Action.buy(Item.SHOVEL);
+        } else if (view.hasItem(Item.SHOVEL) && !view.isGoldFound()) {
+            return Action.DIG;
+        } else if (view.isSamurai() && !view.hasItem(Item.SWORD)) {
+            return Action.buy(Item.SWORD);
+        } else if (view.hasItem(neededItem)) {
+            return Action.MOVE;
+        } else if (view.canAfford(neededItem)) {
+            return Action.buy(neededItem);
+        } else {
+            return Action.TROUBLE;
+        }
+    }
+}
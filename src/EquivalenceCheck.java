@@ -0,0 +1,148 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The EquivalenceCheck plays the same games through the game's different engines and checks that they agree. <p>
+ * Every mode is played by a MonteCarloRunner one TreasureHunter at a time and by a BatchSimulator a whole batch
+ * at a time, and the two sets of results have to be the same. Then every keystroke script in a directory is
+ * played on the console rules with an ActionJournal recording it, along with some headless SimpleAgent games,
+ * and each game is replayed headless from the journal; the replayed hunter has to end up exactly as the
+ * played one did. <p>
+ * Usage: java EquivalenceCheck [script-directory] [games per mode]
+ */
+public class EquivalenceCheck {
+    // constants
+    private static final long SEED = 1;
+    private static final int MAX_TURNS = 1000;
+    private static final int JOURNALED_GAMES = 20;
+
+    /**
+     * Plays every mode both ways and compares the results.
+     *
+     * @param games How many games to play in each mode.
+     * @return What didn't match, one line each.
+     */
+    public static List<String> checkBatches(int games) {
+        List<String> failures = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(1);
+        MonteCarloRunner runner = new MonteCarloRunner(pool, new SimpleAgent(), MAX_TURNS, SEED);
+        for (int i = 0; i < MonteCarloRunner.MODES.length; i++) {
+            String played = runner.run(MonteCarloRunner.MODES[i], games).infoString();
+            String batched = runner.runBatched(MonteCarloRunner.MODES[i], games).infoString();
+            if (!played.equals(batched)) {
+                failures.add(MonteCarloRunner.MODE_NAMES[i] + " mode: batched results differ\n" + played + batched);
+            }
+        }
+        pool.shutdown();
+        return failures;
+    }
+
+    /**
+     * Journals the scripts and some headless games, replays each one, and compares.
+     *
+     * @param scripts The keystroke scripts to play.
+     * @return What didn't match, one line each.
+     */
+    public static List<String> checkJournal(List<Path> scripts) throws IOException {
+        List<String> failures = new ArrayList<>();
+        Path directory = Files.createTempDirectory("journal");
+        List<String> names = new ArrayList<>();
+        List<TreasureHunter> played = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        PrintStream nowhere = new PrintStream(OutputStream.nullOutputStream());
+        try (ActionJournal journal = new ActionJournal(directory, 1 << 16)) {
+            for (Path script : scripts) {
+                Scanner scanner = new Scanner(Files.readString(script, StandardCharsets.UTF_8));
+                long seed = Long.parseLong(scanner.nextLine().trim());
+                TreasureHunter game = new TreasureHunter(scanner, nowhere, new GameRandom(seed));
+                JournalSession session = journal.newSession();
+                game.journalTo(session);
+                try {
+                    game.play();
+                } catch (NoSuchElementException e) {
+                    // the script ends here
+                }
+                names.add(script.getFileName().toString());
+                played.add(game);
+                ids.add(session.getGameId());
+            }
+            Agent agent = new SimpleAgent();
+            for (String mode : MonteCarloRunner.MODES) {
+                for (int i = 0; i < JOURNALED_GAMES; i++) {
+                    TreasureHunter game = TreasureHunter.headless(GameRandom.forGame(SEED, i));
+                    JournalSession session = journal.newSession();
+                    game.journalTo(session);
+                    game.start("agent", mode);
+                    game.play(agent, MAX_TURNS);
+                    names.add("headless game " + i + " in mode " + mode);
+                    played.add(game);
+                    ids.add(session.getGameId());
+                }
+            }
+        }
+
+        for (int i = 0; i < played.size(); i++) {
+            TreasureHunter replayed = JournalReplay.replay(directory, ids.get(i));
+            String expected = describe(played.get(i));
+            String got = describe(replayed);
+            if (!expected.equals(got)) {
+                failures.add(names.get(i) + ": played \"" + expected + "\" but replayed \"" + got + "\"");
+            }
+        }
+        for (Path file : ActionJournal.segmentFiles(directory)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+        return failures;
+    }
+
+    /**
+     * @return Everything about how a game ended that a replay has to get the same.
+     */
+    private static String describe(TreasureHunter game) {
+        if (game.getHunter() == null) {
+            return "not started";
+        }
+        return game.getHunter().infoString() + " after " + game.getTurns() + " turns, won " + game.isWon()
+                + ", lost " + game.isLost();
+    }
+
+    /**
+     * @param args script directory (default "scripts"), games to play in each mode (all optional)
+     */
+    public static void main(String[] args) throws IOException {
+        Path scripts = Paths.get("scripts");
+        int games = 20000;
+        if (args.length > 0) {
+            scripts = Paths.get(args[0]);
+        }
+        if (args.length > 1) {
+            games = Integer.parseInt(args[1]);
+        }
+
+        List<String> failures = checkBatches(games);
+        System.out.printf("Batched vs one at a time: %d games in each of %d modes, %d differ%n",
+                games, MonteCarloRunner.MODES.length, failures.size());
+        List<Path> scriptFiles = ScriptRunner.scriptFiles(scripts);
+        List<String> journalFailures = checkJournal(scriptFiles);
+        System.out.printf("Journal round trip: %d scripts and %d headless games, %d differ%n", scriptFiles.size(),
+                JOURNALED_GAMES * MonteCarloRunner.MODES.length, journalFailures.size());
+        failures.addAll(journalFailures);
+        for (String failure : failures) {
+            System.out.println("FAILED " + failure);
+        }
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+import java.io.PrintStream;
+
+/**
+ * An EventSink is told everything the game says straight away, as it happens: the shopkeeper's answers,
+ * the strangers' shouts, what was dug up or found. (A town's news waits in the Town until the menu shows it.) <p>
+ * A game played on a console prints each event; a headless game ignores them without putting them into words.
+ */
+public interface EventSink {
+    /**
+     * Ignores every event. A game that ignores what it says is headless, so its actions aren't metered either.
+     */
+    EventSink IGNORE = new EventSink() {
+        public void event(GameEvent event, Hunter hunter, int amount, Object subject) {
+        }
+
+        public boolean isMetered() {
+            return false;
+        }
+    };
+
+    /**
+     * @param event What happened.
+     * @param hunter The hunter it happened to.
+     * @param amount The gold won, lost or dug up, if the event is about gold.
+     * @param subject The item, treasure or terrain the event is about, if any.
+     */
+    void event(GameEvent event, Hunter hunter, int amount, Object subject);
+
+    /**
+     * @return true if the game's actions are timed and counted in GameMetrics; a headless game's aren't, so
+     * Monte Carlo runs and tournaments don't pay for numbers nobody reads.
+     */
+    default boolean isMetered() {
+        return true;
+    }
+
+    /**
+     * @param out Where to print.
+     * @return A sink that prints each event on its own line.
+     */
+    static EventSink printingTo(PrintStream out) {
+        return (event, hunter, amount, subject) -> out.println(event.text(hunter, amount, subject));
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * The GameEvent enum lists everything that can happen in a game that the player gets told about. <p>
+ * The game only passes events around, each with the hunter it happened to, an amount of gold and the thing it
+ * was about (an item, a treasure or a terrain). Nothing is turned into text until something wants to show it,
+ * so a game nobody is watching never builds a message.
+ */
+public enum GameEvent {
+    // the town's news, shown above the menu
+    TOUGH_WELCOME,
+    SLEEPY_WELCOME,
+    CROSSED,
+    CROSSED_ITEM_LOST,
+    STUCK,
+    LEFT_SHOP,
+    NO_TROUBLE,
+    SAMURAI_BRAWL,
+    SAMURAI_BRAWL_WON,
+    BRAWL_WON,
+    BRAWL_LOST,
+    // what's said straight away
+    STRANGER_PAYS,
+    STRANGER_COLLECTS,
+    TREASURE_FOUND,
+    CANT_HUNT,
+    GOLD_DUG,
+    DUG_DIRT,
+    NO_SHOVEL,
+    ALREADY_DUG,
+    EXPLORED,
+    BOUGHT,
+    CANT_BUY,
+    SOLD,
+    CANT_SELL,
+    NOT_WANTED;
+
+    // constants
+    private static final String FIGHT = Colors.RED + "You want trouble, stranger!  You got it!\nOof! Umph! Ow!" + Colors.RESET + "\n";
+
+    /**
+     * Puts the event into words.
+     *
+     * @param hunter The hunter it happened to.
+     * @param amount The gold won, lost or dug up, if the event is about gold.
+     * @param subject The item, treasure or terrain the event is about, if any; a bought item is the name asked for.
+     * @return The message, as the player sees it.
+     */
+    public String text(Hunter hunter, int amount, Object subject) {
+        switch (this) {
+            case TOUGH_WELCOME:
+                return "Welcome to town, " + hunter.getHunterName() + ".\n"
+                        + Colors.CYAN + "It's pretty rough around here, so watch yourself." + Colors.RESET;
+            case SLEEPY_WELCOME:
+                return "Welcome to town, " + hunter.getHunterName() + ".\nWe're just a sleepy little town with mild mannered folk.";
+            case CROSSED:
+                return ((Terrain) subject).crossedMessage(false);
+            case CROSSED_ITEM_LOST:
+                return ((Terrain) subject).crossedMessage(true);
+            case STUCK:
+                return "You can't leave town, " + hunter.getHunterName() + ". You don't have a "
+                        + ((Terrain) subject).getNeededItem() + ".";
+            case LEFT_SHOP:
+                return "You left the shop";
+            case NO_TROUBLE:
+                return "You couldn't find any trouble";
+            case SAMURAI_BRAWL:
+                return FIGHT;
+            case SAMURAI_BRAWL_WON:
+                return FIGHT + "Okay, stranger! You proved yer mettle. Here, take my gold."
+                        + "You have slain your enemy, mighty samurai!!"
+                        + "\nYou won the brawl and receive " + Colors.YELLOW + amount + Colors.RESET + " gold.";
+            case BRAWL_WON:
+                return FIGHT + "\nYou won the brawl and receive " + Colors.YELLOW + amount + Colors.RESET + " gold.";
+            case BRAWL_LOST:
+                return FIGHT + "\nYou lost the brawl and pay " + Colors.YELLOW + amount + Colors.RESET + " gold.";
+            case STRANGER_PAYS:
+                return "Okay, stranger! You proved yer mettle. Here, take my gold.";
+            case STRANGER_COLLECTS:
+                return Colors.RED + "That'll teach you to go lookin' fer trouble in MY town! Now pay up!" + Colors.RESET;
+            case TREASURE_FOUND:
+                return "You found " + ((Treasure) subject).getName() + "!";
+            case CANT_HUNT:
+                return "You cant hunt anymore!";
+            case GOLD_DUG:
+                return "You dug up " + amount + "gold!";
+            case DUG_DIRT:
+                return "You dug but only found dirt!";
+            case NO_SHOVEL:
+                return "You cant dig for gold without a shovel!";
+            case ALREADY_DUG:
+                return "You already have gold in this town stop being greedy!";
+            case EXPLORED:
+                return ((Terrain) subject).infoString();
+            case BOUGHT:
+                return "Ye' got yerself a " + subject + ". Come again soon.";
+            case CANT_BUY:
+                return "Hmm, either you don't have enough gold or you've already got one of those!";
+            case SOLD:
+                return "Pleasure doin' business with you.";
+            case CANT_SELL:
+                return "Stop stringin' me along!";
+            default:
+                return "We don't want none of those.";
+        }
+    }
+}
@@ -0,0 +1,254 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The GameMetrics class counts what happens in every game played in this JVM: how long each kind of action
+ * takes, and how brawls, digs, treasure hunts, broken items and whole games turn out. Headless games aren't
+ * counted, so simulations don't pay for it. The time of a choice leaves out waiting for the player. <p>
+ * The game code records into static counters as it goes. They are all LongAdders, which give each thread
+ * its own cell to add to, so recording never takes a lock and busy sessions don't slow each other down.
+ * The numbers can be read over JMX once register() has been called, or printed every so often with
+ * dumpEvery().
+ */
+public class GameMetrics implements GameMetricsMXBean {
+    // constants -- the timed actions
+    public static final int CHOICE = 0;
+    public static final int BUY = 1;
+    public static final int SELL = 2;
+    public static final int TROUBLE = 3;
+    public static final int DIG = 4;
+    public static final int LEAVE = 5;
+    public static final int HUNT = 6;
+    private static final String[] ACTION_NAMES = {"choice", "buy", "sell", "trouble", "dig", "leave", "hunt"};
+    // the game modes, in the same order as the mode flags, plus games that never picked one
+    private static final String[] MODE_NAMES = {"easy", "normal", "hard", "test", "samurai", "other"};
+    private static final int OTHER_MODE = 5;
+    private static final String DOMAIN = "TreasureHunter";
+    // static variables
+    private static final LatencyHistogram[] LATENCIES = new LatencyHistogram[ACTION_NAMES.length];
+    private static final LongAdder BRAWLS_WON = new LongAdder();
+    private static final LongAdder BRAWLS_LOST = new LongAdder();
+    private static final LongAdder ITEMS_BROKEN = new LongAdder();
+    private static final LongAdder DIGS = new LongAdder();
+    private static final LongAdder GOLD_DUG = new LongAdder();
+    private static final LongAdder[] TREASURES_FOUND = new LongAdder[Treasure.count()];
+    private static final LongAdder[] GAMES_WON = new LongAdder[MODE_NAMES.length];
+    private static final LongAdder[] GAMES_LOST = new LongAdder[MODE_NAMES.length];
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    static {
+        for (int i = 0; i < LATENCIES.length; i++) {
+            LATENCIES[i] = new LatencyHistogram(ACTION_NAMES[i]);
+        }
+        for (int i = 0; i < TREASURES_FOUND.length; i++) {
+            TREASURES_FOUND[i] = new LongAdder();
+        }
+        for (int i = 0; i < MODE_NAMES.length; i++) {
+            GAMES_WON[i] = new LongAdder();
+            GAMES_LOST[i] = new LongAdder();
+        }
+    }
+
+    private GameMetrics() {
+    }
+
+    // Recording -- called from the game as things happen
+
+    /**
+     * Records how long an action took.
+     *
+     * @param action One of the action constants.
+     * @param startNanos What System.nanoTime() said when the action started.
+     */
+    public static void time(int action, long startNanos) {
+        LATENCIES[action].record(System.nanoTime() - startNanos);
+    }
+
+    public static void brawlWon() {
+        BRAWLS_WON.increment();
+    }
+
+    public static void brawlLost() {
+        BRAWLS_LOST.increment();
+    }
+
+    public static void itemBroken() {
+        ITEMS_BROKEN.increment();
+    }
+
+    /**
+     * @param gold How much gold the dig turned up; 0 for dirt.
+     */
+    public static void dug(int gold) {
+        DIGS.increment();
+        GOLD_DUG.add(gold);
+    }
+
+    public static void treasureFound(Treasure treasure) {
+        TREASURES_FOUND[treasure.ordinal()].increment();
+    }
+
+    /**
+     * Records a game that has just been won or lost.
+     *
+     * @param modeFlags The game's mode flags, as returned by TreasureHunter.getModeFlags().
+     * @param won true if the hunter won, false if they lost.
+     */
+    public static void gameOver(int modeFlags, boolean won) {
+        int mode = Integer.numberOfTrailingZeros(modeFlags);
+        if (mode >= OTHER_MODE) {
+            mode = OTHER_MODE;
+        }
+        if (won) {
+            GAMES_WON[mode].increment();
+        } else {
+            GAMES_LOST[mode].increment();
+        }
+    }
+
+    // Reading
+
+    /**
+     * @param action One of the action constants.
+     * @return The timings for that action.
+     */
+    public static LatencyHistogram latency(int action) {
+        return LATENCIES[action];
+    }
+
+    public long getBrawlsWon() {
+        return BRAWLS_WON.sum();
+    }
+
+    public long getBrawlsLost() {
+        return BRAWLS_LOST.sum();
+    }
+
+    public long getItemsBroken() {
+        return ITEMS_BROKEN.sum();
+    }
+
+    public long getDigs() {
+        return DIGS.sum();
+    }
+
+    public long getGoldDug() {
+        return GOLD_DUG.sum();
+    }
+
+    public Map<String, Long> getTreasuresFound() {
+        Map<String, Long> found = new LinkedHashMap<>();
+        for (int i = 0; i < TREASURES_FOUND.length; i++) {
+            found.put(Treasure.get(i).getName(), TREASURES_FOUND[i].sum());
+        }
+        return found;
+    }
+
+    public Map<String, Long> getGamesWon() {
+        return byMode(GAMES_WON);
+    }
+
+    public Map<String, Long> getGamesLost() {
+        return byMode(GAMES_LOST);
+    }
+
+    private static Map<String, Long> byMode(LongAdder[] counts) {
+        Map<String, Long> byMode = new LinkedHashMap<>();
+        for (int i = 0; i < MODE_NAMES.length; i++) {
+            byMode.put(MODE_NAMES[i], counts[i].sum());
+        }
+        return byMode;
+    }
+
+    public String getSnapshot() {
+        return snapshot();
+    }
+
+    /**
+     * Sets every counter and timing back to zero.
+     */
+    public void reset() {
+        for (LatencyHistogram latency : LATENCIES) {
+            latency.reset();
+        }
+        BRAWLS_WON.reset();
+        BRAWLS_LOST.reset();
+        ITEMS_BROKEN.reset();
+        DIGS.reset();
+        GOLD_DUG.reset();
+        for (int i = 0; i < TREASURES_FOUND.length; i++) {
+            TREASURES_FOUND[i].reset();
+        }
+        for (int i = 0; i < MODE_NAMES.length; i++) {
+            GAMES_WON[i].reset();
+            GAMES_LOST[i].reset();
+        }
+    }
+
+    /**
+     * Reads every counter once. Counters that are being added to while this runs may be a step behind each other.
+     *
+     * @return A few lines showing the outcomes so far and one line per timed action.
+     */
+    public static String snapshot() {
+        String str = "Games won: " + INSTANCE.getGamesWon() + "\n";
+        str += "Games lost: " + INSTANCE.getGamesLost() + "\n";
+        str += "Brawls won: " + BRAWLS_WON.sum() + ", lost: " + BRAWLS_LOST.sum() + "\n";
+        str += "Digs: " + DIGS.sum() + ", gold dug: " + GOLD_DUG.sum() + "\n";
+        str += "Items broken: " + ITEMS_BROKEN.sum() + "\n";
+        str += "Treasures found: " + INSTANCE.getTreasuresFound() + "\n";
+        for (LatencyHistogram latency : LATENCIES) {
+            str += latency.infoString() + "\n";
+        }
+        return str;
+    }
+
+    /**
+     * Makes the counters visible over JMX, as TreasureHunter:type=GameMetrics for the outcomes and
+     * TreasureHunter:type=Latency,action=... for each timed action. Registering twice does nothing.
+     */
+    public static synchronized void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=GameMetrics");
+            if (server.isRegistered(name)) {
+                return;
+            }
+            server.registerMBean(INSTANCE, name);
+            for (LatencyHistogram latency : LATENCIES) {
+                server.registerMBean(latency, new ObjectName(DOMAIN + ":type=Latency,action=" + latency.getAction()));
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Couldn't register the game metrics", e);
+        }
+    }
+
+    /**
+     * Prints a snapshot every so often on a background thread, which won't keep the JVM running.
+     *
+     * @param seconds How long to wait between snapshots.
+     * @param to Where to print them.
+     * @return The scheduler, so the dumps can be stopped with shutdown().
+     */
+    public static ScheduledExecutorService dumpEvery(long seconds, PrintStream to) {
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            to.print(snapshot());
+            to.flush();
+        }, seconds, seconds, TimeUnit.SECONDS);
+        return dumper;
+    }
+}
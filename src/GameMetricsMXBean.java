@@ -0,0 +1,26 @@
+import java.util.Map;
+
+/**
+ * What JMX shows for the outcomes of every game played in this JVM; see GameMetrics.
+ */
+public interface GameMetricsMXBean {
+    long getBrawlsWon();
+
+    long getBrawlsLost();
+
+    long getItemsBroken();
+
+    long getDigs();
+
+    long getGoldDug();
+
+    Map<String, Long> getTreasuresFound();
+
+    Map<String, Long> getGamesWon();
+
+    Map<String, Long> getGamesLost();
+
+    String getSnapshot();
+
+    void reset();
+}
@@ -0,0 +1,134 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The GameRandom class is the source of every random outcome in one game of Treasure Hunter. <p>
+ * Each game owns its own GameRandom, so games running on different threads never share a generator,
+ * and a game started from the same seed always plays out the same way. <p>
+ * The numbers come from the SplitMix64 algorithm (the same one java.util.SplittableRandom uses);
+ * split() hands out an independent generator for another game.
+ */
+public class GameRandom {
+    // constants
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    // instance variables
+    private long seed;
+    private long gamma;
+
+    /**
+     * Creates a generator that always produces the same numbers for the same seed.
+     *
+     * @param seed The seed.
+     */
+    public GameRandom(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Creates a generator from its full state, as returned by getSeed() and getGamma().
+     *
+     * @param seed The current seed.
+     * @param gamma The step between seeds; must be odd.
+     */
+    public GameRandom(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma | 1L;
+    }
+
+    /**
+     * @return A generator with a seed nobody chose, for games that don't need to be replayed.
+     */
+    public static GameRandom unseeded() {
+        return new GameRandom(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates the generator for one game out of a numbered series of games.
+     * The same seed and game number always give the same generator, no matter which thread asks.
+     *
+     * @param seed The seed for the whole series.
+     * @param game The game's number in the series.
+     * @return The game's generator.
+     */
+    public static GameRandom forGame(long seed, long game) {
+        return new GameRandom(mix64(seed + game * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Works the same as Math.random().
+     *
+     * @return A number from 0 (inclusive) to 1 (exclusive).
+     */
+    public double nextDouble() {
+        return (mix64(nextSeed()) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * @return A random long.
+     */
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    /**
+     * Splits off a new generator whose numbers are independent of this one's.
+     * Both generators can then be used on different threads.
+     *
+     * @return The new generator.
+     */
+    public GameRandom split() {
+        return new GameRandom(mix64(nextSeed()), mixGamma(nextSeed()));
+    }
+
+    // Batches -- BatchSimulator keeps the seeds of many games in one array and steps them itself
+
+    /**
+     * @return The starting seed of forGame(seed, game), without making the generator.
+     */
+    static long gameSeed(long seed, long game) {
+        return mix64(seed + game * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return The seed after the next number is drawn from a game's generator started with gameSeed().
+     */
+    static long advance(long seed) {
+        return seed + GOLDEN_GAMMA;
+    }
+
+    /**
+     * @param seed A seed returned by advance().
+     * @return The number nextDouble() gives for that seed.
+     */
+    static double toDouble(long seed) {
+        return (mix64(seed) >>> 11) * DOUBLE_UNIT;
+    }
+
+    // accessors
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getGamma() {
+        return gamma;
+    }
+
+    private long nextSeed() {
+        seed += gamma;
+        return seed;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
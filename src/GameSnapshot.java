@@ -0,0 +1,145 @@
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * The GameSnapshot class saves a whole game of Treasure Hunter into a compact binary snapshot and loads it back. <p>
+ * A snapshot holds the mode, the number of turns played, the random source's state, the hunter (name, gold, kit and
+ * treasures in the order they were found) and the town the hunter is in (its terrain and flags), which is
+ * everything needed to carry on exactly where the game stopped. Snapshots are read and written in place in a
+ * ByteBuffer, so they can go straight into a direct or memory-mapped buffer without being copied. <p>
+ * Version 1 layout (big-endian): magic (int), version (short), mode flags (byte), town flags (byte), turns (int),
+ * random seed (long), random gamma (long), gold (int), kit (byte), terrain (byte), treasure count (byte),
+ * one byte per treasure, name length (unsigned short), name (UTF-8).
+ */
+public final class GameSnapshot {
+    // constants
+    public static final int MAGIC = 0x54485350; // "THSP"
+    public static final short VERSION = 1;
+    // the most bytes of name the name's length can count
+    public static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final int FIXED_SIZE = 4 + 2 + 1 + 1 + 4 + 8 + 8 + 4 + 1 + 1 + 1 + 2;
+
+    private GameSnapshot() {
+    }
+
+    /**
+     * @param game A started game.
+     * @return How many bytes the game's snapshot takes.
+     */
+    public static int size(TreasureHunter game) {
+        return FIXED_SIZE + game.getHunter().getTreasureCount() + nameBytes(game.getHunter()).length;
+    }
+
+    /**
+     * Writes a snapshot of a started game at the buffer's position, and moves the position past it.
+     *
+     * @param game The game to save; not one on a World map, whose towns a snapshot can't hold.
+     * @param buffer Where to write it; must have at least size(game) bytes remaining.
+     * @throws IllegalArgumentException If the game is on a World map, or the hunter's name is more than
+     * MAX_NAME_BYTES long.
+     */
+    public static void write(TreasureHunter game, ByteBuffer buffer) {
+        if (game.getWorld() != null) {
+            throw new IllegalArgumentException("A game on a World map can't be saved");
+        }
+        Hunter hunter = game.getHunter();
+        byte[] name = nameBytes(hunter);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("The hunter's name is too long to save the game");
+        }
+        Town town = game.getCurrentTown();
+        GameRandom random = game.getRandom();
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put((byte) game.getModeFlags());
+        buffer.put((byte) town.getFlags());
+        buffer.putInt(game.getTurns());
+        buffer.putLong(random.getSeed());
+        buffer.putLong(random.getGamma());
+        buffer.putInt(hunter.getGold());
+        buffer.put((byte) hunter.getKit());
+        buffer.put((byte) town.getTerrain().getId());
+        buffer.put((byte) hunter.getTreasureCount());
+        for (int i = 0; i < hunter.getTreasureCount(); i++) {
+            buffer.put((byte) hunter.getFoundTreasure(i).ordinal());
+        }
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+    }
+
+    /**
+     * Reads a snapshot at the buffer's position, and moves the position past it.
+     *
+     * @param buffer Where the snapshot is.
+     * @param scanner Where the restored game reads the player's input from (null for a headless game).
+     * @param out Where the restored game is displayed.
+     * @return The restored game, ready to carry on.
+     */
+    public static TreasureHunter read(ByteBuffer buffer, Scanner scanner, PrintStream out) {
+        return read(buffer, scanner, out, Rules.STANDARD);
+    }
+
+    /**
+     * Reads a snapshot at the buffer's position, and moves the position past it. The snapshot doesn't hold the
+     * rules the game was played by, so the restored game carries on by the ones given.
+     *
+     * @param buffer Where the snapshot is.
+     * @param scanner Where the restored game reads the player's input from (null for a headless game).
+     * @param out Where the restored game is displayed.
+     * @param rules The rules the restored game is played by.
+     * @return The restored game, ready to carry on.
+     * @throws IllegalArgumentException If the buffer doesn't hold a snapshot, or it names a terrain or treasure
+     * there isn't.
+     */
+    public static TreasureHunter read(ByteBuffer buffer, Scanner scanner, PrintStream out, Rules rules) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a Treasure Hunter snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Can't read snapshot version " + version);
+        }
+        int modeFlags = buffer.get() & 0xFF;
+        int townFlags = buffer.get() & 0xFF;
+        int turns = buffer.getInt();
+        long seed = buffer.getLong();
+        long gamma = buffer.getLong();
+        int gold = buffer.getInt();
+        int kit = buffer.get() & 0xFF;
+        int terrain = buffer.get() & 0xFF;
+        if (terrain >= Terrain.count()) {
+            throw new IllegalArgumentException("Bad snapshot: there is no terrain " + terrain);
+        }
+        int treasureCount = buffer.get() & 0xFF;
+        if (treasureCount > Treasure.count()) {
+            throw new IllegalArgumentException("Bad snapshot: " + treasureCount + " treasures, but there are only "
+                    + Treasure.count());
+        }
+        byte[] treasures = new byte[treasureCount];
+        buffer.get(treasures);
+        for (byte treasure : treasures) {
+            if ((treasure & 0xFF) >= Treasure.count()) {
+                throw new IllegalArgumentException("Bad snapshot: there is no treasure " + (treasure & 0xFF));
+            }
+        }
+        byte[] name = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(name);
+
+        boolean samurai = (modeFlags & TreasureHunter.SAMURAI_MODE) != 0;
+        Hunter hunter = new Hunter(samurai, new String(name, StandardCharsets.UTF_8), gold);
+        hunter.restoreKit(kit);
+        for (byte treasure : treasures) {
+            hunter.treasureCollected(Treasure.get(treasure));
+        }
+        TreasureHunter game = new TreasureHunter(scanner, out, new GameRandom(seed, gamma));
+        game.playBy(rules);
+        game.restore(modeFlags, turns, hunter, rules.getTerrain(terrain), townFlags);
+        return game;
+    }
+
+    private static byte[] nameBytes(Hunter hunter) {
+        return hunter.getHunterName().getBytes(StandardCharsets.UTF_8);
+    }
+}
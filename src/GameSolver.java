@@ -0,0 +1,444 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The GameSolver works out the best possible way to play each mode, and exactly how likely it is to win. <p>
+ * Every random thing in the game has fixed odds: the terrain of a new town, whether it is tough, the
+ * brawls, the digs, the items breaking and the treasures. So the game is a Markov decision process, and
+ * value iteration over every state finds the chance of winning from each one when the best move is made.
+ * The odds come from the Rules the solver is given, and the mode's own rules (starting gold and kit, prices,
+ * how tough the towns are) are read from a game started in that mode by those Rules, so they can't drift apart
+ * from the real thing. <p>
+ * The sweeps are split over a fork-join pool by gold, always in the same slices, so the answer is the same
+ * on any number of threads. A new town's value only depends on the hunter's
+ * gold, kit and treasures, so it is worked out once per sweep and shared by every state that moves on.
+ * Each mode is solved once per solver and remembered.
+ */
+public class GameSolver {
+    // constants
+    // the treasure bits, in Treasure order; the dust doesn't count
+    private static final int[] TREASURE_BITS = {OptimalPolicy.CROWN, OptimalPolicy.TROPHY, 0, OptimalPolicy.GEM};
+    // a move has to beat the ones before it by more than this, so ties go to the move that gets somewhere
+    private static final double TIE_MARGIN = 1e-12;
+    private static final int MAX_SWEEPS = 100000;
+    private static final int GOLD_PER_TASK = 4;
+    // instance variables
+    private ForkJoinPool pool;
+    private int goldCap;
+    private double tolerance;
+    private Rules rules;
+    private ConcurrentMap<String, OptimalPolicy> solved;
+
+    /**
+     * @param pool The pool that does the sweeps.
+     * @param goldCap The most gold the states tell apart; more than that counts as this much.
+     * @param tolerance Sweeping stops once no state's chance changes by more than this.
+     */
+    public GameSolver(ForkJoinPool pool, int goldCap, double tolerance) {
+        this(pool, goldCap, tolerance, Rules.STANDARD);
+    }
+
+    /**
+     * @param pool The pool that does the sweeps.
+     * @param goldCap The most gold the states tell apart; more than that counts as this much.
+     * @param tolerance Sweeping stops once no state's chance changes by more than this.
+     * @param rules The rules every mode is solved for.
+     */
+    public GameSolver(ForkJoinPool pool, int goldCap, double tolerance, Rules rules) {
+        this.pool = pool;
+        this.goldCap = goldCap;
+        this.tolerance = tolerance;
+        this.rules = rules;
+        solved = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Solves a mode, or returns the solution worked out last time.
+     *
+     * @param mode The mode letter, as typed at the start of the game.
+     * @return The best way to play the mode.
+     */
+    public OptimalPolicy solve(String mode) {
+        return solved.computeIfAbsent(mode, this::solveMode);
+    }
+
+    private OptimalPolicy solveMode(String mode) {
+        Model model = new Model(mode);
+        OptimalPolicy policy = model.policy;
+        int states = policy.getStateCount();
+        double[] values = new double[states];
+        double[] next = new double[states];
+        byte[] moves = new byte[states];
+        // a won game stays won
+        for (int gold = 0; gold <= goldCap; gold++) {
+            for (int kit = 0; kit < model.kits; kit++) {
+                for (int terrain = 0; terrain < model.terrains; terrain++) {
+                    for (int flags = 0; flags < OptimalPolicy.FLAG_SETS; flags++) {
+                        int state = policy.index(gold, kit, OptimalPolicy.WON, terrain, flags);
+                        values[state] = 1;
+                        next[state] = 1;
+                    }
+                }
+            }
+        }
+
+        int sweeps = 0;
+        double change;
+        do {
+            model.newTowns(values);
+            change = pool.invoke(new SweepTask(model, values, next, moves, 0, goldCap + 1));
+            double[] swap = values;
+            values = next;
+            next = swap;
+            sweeps++;
+        } while (change > tolerance && sweeps < MAX_SWEEPS);
+
+        model.newTowns(values);
+        policy.solved(values, moves, model.newTown[model.newTownIndex(model.startGold, model.startKit, 0)], sweeps);
+        return policy;
+    }
+
+    /**
+     * The rules of one mode, and the working space for solving it.
+     */
+    private class Model {
+        private OptimalPolicy policy;
+        private int kits;
+        private int terrains;
+        private int goldStride;
+        private int kitStride;
+        private int treasureStride;
+        private boolean samurai;
+        private double toughness;
+        private int startGold;
+        private int startKit;
+        private int refill;
+        private int shovel;
+        private int sword;
+        private int[] neededItem;
+        private int[] costs;
+        private int[] buyBackCosts;
+        private int[] swordCosts;
+        private int[] swordBuyBackCosts;
+        // the odds, as Town draws them
+        private double[] terrainChances;
+        private double[] treasureChances;
+        private double digChance;
+        private int digGold;
+        private double breakChance;
+        private double toughTroubleChance;
+        private double mildTroubleChance;
+        private int brawlGold;
+        private double[] newTown;
+
+        Model(String mode) {
+            TreasureHunter game = TreasureHunter.headless(0);
+            game.playBy(rules);
+            game.start("solver", mode);
+            Hunter hunter = game.getHunter();
+            samurai = hunter.isSamurai();
+            toughness = game.getToughness();
+
+            // only the terrains a town can have, and the items that get a hunter out of one of them, dig, or
+            // scare the shopkeepers, can make a difference
+            List<Terrain> towns = new ArrayList<>();
+            List<Item> items = new ArrayList<>();
+            for (int id = 0; id < Terrain.count(); id++) {
+                if (rules.getTerrainChance(id) > 0) {
+                    towns.add(rules.getTerrain(id));
+                }
+            }
+            for (Terrain terrain : towns) {
+                if (!items.contains(terrain.getItem())) {
+                    items.add(terrain.getItem());
+                }
+            }
+            if (!items.contains(Item.SHOVEL)) {
+                items.add(Item.SHOVEL);
+            }
+            if (samurai && !items.contains(Item.SWORD)) {
+                items.add(Item.SWORD);
+            }
+            policy = new OptimalPolicy(mode, goldCap, items.toArray(new Item[0]), towns.toArray(new Terrain[0]));
+            kits = policy.getKits();
+            terrains = towns.size();
+            goldStride = policy.index(1, 0, 0, 0, 0);
+            kitStride = policy.index(0, 1, 0, 0, 0);
+            treasureStride = policy.index(0, 0, 1, 0, 0);
+
+            startGold = Math.min(goldCap, hunter.getGold());
+            startKit = policy.compactKit(hunter.getKit());
+            // test mode fills the kit up again in every town
+            if ((game.getModeFlags() & TreasureHunter.TEST_MODE) != 0) {
+                refill = startKit;
+            }
+            shovel = 1 << policy.slot(Item.SHOVEL);
+            if (samurai) {
+                sword = 1 << policy.slot(Item.SWORD);
+            }
+            neededItem = new int[terrains];
+            terrainChances = new double[terrains];
+            for (int terrain = 0; terrain < terrains; terrain++) {
+                neededItem[terrain] = 1 << policy.slot(towns.get(terrain).getItem());
+                terrainChances[terrain] = rules.getTerrainChance(towns.get(terrain).getId());
+            }
+            treasureChances = new double[Treasure.count()];
+            for (int i = 0; i < treasureChances.length; i++) {
+                treasureChances[i] = rules.getTreasureChance(i);
+            }
+            digChance = rules.getDigChance();
+            digGold = rules.getDigGold();
+            breakChance = rules.getBreakChance();
+            toughTroubleChance = rules.getTroubleChance(true);
+            mildTroubleChance = rules.getTroubleChance(false);
+            brawlGold = rules.getBrawlGold();
+            PriceTable prices = game.getPrices();
+            PriceTable swordPrices = PriceTable.forSword();
+            costs = new int[items.size()];
+            buyBackCosts = new int[items.size()];
+            swordCosts = new int[items.size()];
+            swordBuyBackCosts = new int[items.size()];
+            for (int slot = 0; slot < items.size(); slot++) {
+                costs[slot] = prices.getCost(items.get(slot));
+                buyBackCosts[slot] = prices.getBuyBackCost(items.get(slot));
+                swordCosts[slot] = swordPrices.getCost(items.get(slot));
+                swordBuyBackCosts[slot] = swordPrices.getBuyBackCost(items.get(slot));
+            }
+            newTown = new double[(goldCap + 1) * kits * OptimalPolicy.TREASURE_SETS];
+        }
+
+        int newTownIndex(int gold, int kit, int treasures) {
+            return (gold * kits + kit) * OptimalPolicy.TREASURE_SETS + treasures;
+        }
+
+        /**
+         * Works out the chance of winning from just arriving in a new town, for every gold, kit and treasures.
+         */
+        void newTowns(double[] values) {
+            for (int gold = 0; gold <= goldCap; gold++) {
+                for (int kit = 0; kit < kits; kit++) {
+                    for (int treasures = 0; treasures < OptimalPolicy.TREASURE_SETS; treasures++) {
+                        double sum = 0;
+                        for (int terrain = 0; terrain < terrains; terrain++) {
+                            int state = policy.index(gold, kit, treasures, terrain, 0);
+                            sum += terrainChances[terrain] * (toughness * values[state + OptimalPolicy.TOUGH]
+                                    + (1 - toughness) * values[state]);
+                        }
+                        newTown[newTownIndex(gold, kit, treasures)] = sum;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sweeps the states with gold from start (inclusive) to end (exclusive),
+     * splitting the range in half until it is small enough for one worker.
+     * Every state is worked out from the last sweep's values.
+     */
+    private class SweepTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+        private Model model;
+        private double[] values;
+        private double[] next;
+        private byte[] moves;
+        private int start;
+        private int end;
+
+        SweepTask(Model model, double[] values, double[] next, byte[] moves, int start, int end) {
+            this.model = model;
+            this.values = values;
+            this.next = next;
+            this.moves = moves;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return The biggest change to any state's chance of winning.
+         */
+        protected Double compute() {
+            if (end - start <= GOLD_PER_TASK) {
+                double change = 0;
+                int kits = model.kits;
+                int terrains = model.terrains;
+                for (int gold = start; gold < end; gold++) {
+                    for (int kit = 0; kit < kits; kit++) {
+                        for (int treasures = 0; treasures < OptimalPolicy.WON; treasures++) {
+                            // flags vary fastest, then terrain, so the states of one treasure set come in a row
+                            int state = model.policy.index(gold, kit, treasures, 0, 0);
+                            for (int terrain = 0; terrain < terrains; terrain++) {
+                                for (int flags = 0; flags < OptimalPolicy.FLAG_SETS; flags++, state++) {
+                                    double value = update(state, gold, kit, treasures, terrain, flags);
+                                    change = Math.max(change, Math.abs(value - values[state]));
+                                    next[state] = value;
+                                }
+                            }
+                        }
+                    }
+                }
+                return change;
+            }
+            int middle = (start + end) >>> 1;
+            SweepTask left = new SweepTask(model, values, next, moves, start, middle);
+            left.fork();
+            double right = new SweepTask(model, values, next, moves, middle, end).compute();
+            return Math.max(right, left.join());
+        }
+
+        /**
+         * Finds the best move from one state.
+         *
+         * @return The chance of winning with that move.
+         */
+        private double update(int state, int gold, int kit, int treasures, int terrain, int flags) {
+            int goldCap = GameSolver.this.goldCap;
+            int goldStride = model.goldStride;
+            int kitStride = model.kitStride;
+            int treasureStride = model.treasureStride;
+            // doing nothing never gets a hunter any closer
+            double best = 0;
+            int move = OptimalPolicy.NOTHING;
+
+            if ((flags & OptimalPolicy.SEARCHED) == 0) {
+                int searched = state + OptimalPolicy.SEARCHED;
+                double value = 0;
+                for (int i = 0; i < TREASURE_BITS.length; i++) {
+                    int found = treasures | TREASURE_BITS[i];
+                    if (found == OptimalPolicy.WON) {
+                        value += model.treasureChances[i];
+                    } else {
+                        value += model.treasureChances[i] * values[searched + (found - treasures) * treasureStride];
+                    }
+                }
+                if (value > best + TIE_MARGIN) {
+                    best = value;
+                    move = OptimalPolicy.HUNT;
+                }
+            }
+
+            if ((kit & model.shovel) != 0 && (flags & OptimalPolicy.DUG) == 0) {
+                int dug = state + OptimalPolicy.DUG;
+                double sum = 0;
+                for (int found = 1; found <= model.digGold; found++) {
+                    sum += values[dug + (Math.min(goldCap, gold + found) - gold) * goldStride];
+                }
+                double value = (1 - model.digChance) * values[dug] + model.digChance * sum / model.digGold;
+                if (value > best + TIE_MARGIN) {
+                    best = value;
+                    move = OptimalPolicy.DIG;
+                }
+            }
+
+            int needed = model.neededItem[terrain];
+            if ((kit & needed) != 0) {
+                double value = (1 - model.breakChance) * model.newTown[model.newTownIndex(gold, kit | model.refill, treasures)]
+                        + model.breakChance * model.newTown[model.newTownIndex(gold, (kit & ~needed) | model.refill, treasures)];
+                if (value > best + TIE_MARGIN) {
+                    best = value;
+                    move = OptimalPolicy.MOVE;
+                }
+            }
+
+            // looking for trouble until a brawl starts leaves everything as it was in between, so with no
+            // limit on turns it is worth the same as the brawl itself
+            boolean hasSword = (kit & model.sword) != 0;
+            double troubleChance = model.mildTroubleChance;
+            if ((flags & OptimalPolicy.TOUGH) != 0) {
+                troubleChance = model.toughTroubleChance;
+            }
+            // with no chance of a brawl, or a samurai who can never win one, looking for trouble changes nothing
+            if (troubleChance > 0 && !(hasSword && troubleChance == 1)) {
+                double brawls = 0;
+                for (int brawled = 1; brawled <= model.brawlGold; brawled++) {
+                    double won = values[state + (Math.min(goldCap, gold + brawled) - gold) * goldStride];
+                    if (hasSword) {
+                        // a samurai with a sword never pays up, so they just keep fighting until they win
+                        brawls += won;
+                    } else if (gold < brawled) {
+                        brawls += (1 - troubleChance) * won;
+                    } else {
+                        brawls += (1 - troubleChance) * won + troubleChance * values[state - brawled * goldStride];
+                    }
+                }
+                double trouble = brawls / model.brawlGold;
+                if (trouble > best + TIE_MARGIN) {
+                    best = trouble;
+                    move = OptimalPolicy.TROUBLE;
+                }
+            }
+
+            int[] cost = model.costs;
+            int[] buyBackCost = model.buyBackCosts;
+            if (hasSword) {
+                cost = model.swordCosts;
+                buyBackCost = model.swordBuyBackCosts;
+            }
+            int slots = cost.length;
+            for (int slot = 0; slot < slots; slot++) {
+                int bit = 1 << slot;
+                if ((kit & bit) == 0 && (cost[slot] > 0 || model.samurai) && gold >= cost[slot]) {
+                    double value = values[state + bit * kitStride - cost[slot] * goldStride];
+                    if (value > best + TIE_MARGIN) {
+                        best = value;
+                        move = OptimalPolicy.BUY + slot;
+                    }
+                }
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                int bit = 1 << slot;
+                if ((kit & bit) != 0 && buyBackCost[slot] > 0) {
+                    int paid = Math.min(goldCap, gold + buyBackCost[slot]) - gold;
+                    double value = values[state - bit * kitStride + paid * goldStride];
+                    if (value > best + TIE_MARGIN) {
+                        best = value;
+                        move = OptimalPolicy.BUY + slots + slot;
+                    }
+                }
+            }
+
+            moves[state] = (byte) move;
+            return best;
+        }
+    }
+
+    /**
+     * Solves every mode, prints the chance of winning with the best play, and checks it by playing the policy.
+     *
+     * @param args gold cap, games to play with each policy, threads (all optional)
+     */
+    public static void main(String[] args) {
+        int goldCap = 100;
+        int games = 100000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length > 0) {
+            goldCap = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            games = Integer.parseInt(args[1]);
+        }
+        if (args.length > 2) {
+            threads = Integer.parseInt(args[2]);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        GameSolver solver = new GameSolver(pool, goldCap, 1e-10);
+        for (int i = 0; i < MonteCarloRunner.MODES.length; i++) {
+            long startTime = System.nanoTime();
+            OptimalPolicy policy = solver.solve(MonteCarloRunner.MODES[i]);
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.printf("%s mode: best play wins %.4f%% (%d states, %d sweeps, %.1f s)%n",
+                    MonteCarloRunner.MODE_NAMES[i], policy.getWinProbability() * 100,
+                    policy.getStateCount(), policy.getSweeps(), seconds);
+            if (games > 0) {
+                GameStats stats = new MonteCarloRunner(pool, policy, 1000, 1).run(MonteCarloRunner.MODES[i], games);
+                System.out.printf("  played %d games: won %.2f%%  avg turns to win %.1f%n",
+                        games, stats.getWinRate() * 100, stats.getAverageTurnsToWin());
+            }
+        }
+        pool.shutdown();
+    }
+}
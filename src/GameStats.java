@@ -0,0 +1,185 @@
+/**
+ * The GameStats class adds up the results of many simulated games of Treasure Hunter. <p>
+ * Every worker thread fills in its own GameStats, and the results are combined with merge()
+ * once the workers are done, so no locking is needed while games are being played.
+ */
+public class GameStats {
+    // constants
+    public static final int GOLD_BUCKET_SIZE = 10;
+    public static final int GOLD_BUCKETS = 20; // the last bucket holds everything above
+    // instance variables
+    private long games;
+    private long wins;
+    private long losses;
+    private long totalTurns;
+    private long totalSquaredTurns;
+    private long winningTurns;
+    private long totalGold;
+    private int minGold;
+    private int maxGold;
+    private long[] goldBuckets;
+    // games that ended in debt, which only a lost brawl does
+    private long belowZeroGold;
+
+    public GameStats() {
+        minGold = Integer.MAX_VALUE;
+        maxGold = Integer.MIN_VALUE;
+        goldBuckets = new long[GOLD_BUCKETS];
+    }
+
+    /**
+     * Records the result of a game that has finished or run out of turns.
+     *
+     * @param game The game to record.
+     */
+    public void add(TreasureHunter game) {
+        add(game.getTurns(), game.isWon(), game.isLost(), game.getHunter().getGold());
+    }
+
+    /**
+     * Records the result of a game that has finished or run out of turns.
+     *
+     * @param turns How many turns the game took.
+     * @param won true if the hunter won.
+     * @param lost true if the hunter lost.
+     * @param gold The hunter's gold at the end.
+     */
+    public void add(int turns, boolean won, boolean lost, int gold) {
+        games++;
+        totalTurns += turns;
+        totalSquaredTurns += (long) turns * turns;
+        if (won) {
+            wins++;
+            winningTurns += turns;
+        } else if (lost) {
+            losses++;
+        }
+        totalGold += gold;
+        minGold = Math.min(minGold, gold);
+        maxGold = Math.max(maxGold, gold);
+        if (gold < 0) {
+            belowZeroGold++;
+        } else {
+            goldBuckets[Math.min(GOLD_BUCKETS - 1, gold / GOLD_BUCKET_SIZE)]++;
+        }
+    }
+
+    /**
+     * Adds another set of results into this one.
+     *
+     * @param other The results to add.
+     * @return this GameStats, now holding both sets of results.
+     */
+    public GameStats merge(GameStats other) {
+        games += other.games;
+        wins += other.wins;
+        losses += other.losses;
+        totalTurns += other.totalTurns;
+        totalSquaredTurns += other.totalSquaredTurns;
+        winningTurns += other.winningTurns;
+        totalGold += other.totalGold;
+        minGold = Math.min(minGold, other.minGold);
+        maxGold = Math.max(maxGold, other.maxGold);
+        for (int i = 0; i < GOLD_BUCKETS; i++) {
+            goldBuckets[i] += other.goldBuckets[i];
+        }
+        belowZeroGold += other.belowZeroGold;
+        return this;
+    }
+
+    // accessors
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public double getWinRate() {
+        return ratio(wins, games);
+    }
+
+    public double getLossRate() {
+        return ratio(losses, games);
+    }
+
+    public double getAverageTurns() {
+        return ratio(totalTurns, games);
+    }
+
+    /**
+     * @return How far the games' lengths spread around the average, in turns.
+     */
+    public double getTurnsStandardDeviation() {
+        double average = getAverageTurns();
+        return Math.sqrt(Math.max(0, ratio(totalSquaredTurns, games) - average * average));
+    }
+
+    public double getAverageTurnsToWin() {
+        return ratio(winningTurns, wins);
+    }
+
+    public double getAverageGold() {
+        return ratio(totalGold, games);
+    }
+
+    public int getMinGold() {
+        return minGold;
+    }
+
+    public int getMaxGold() {
+        return maxGold;
+    }
+
+    /**
+     * @param bucket Which bucket; bucket i holds the games that ended with i * GOLD_BUCKET_SIZE gold or more.
+     * @return How many games ended with that much gold.
+     */
+    public long getGoldBucket(int bucket) {
+        return goldBuckets[bucket];
+    }
+
+    /**
+     * @return How many games ended with less than no gold; they are in none of the gold buckets.
+     */
+    public long getBelowZeroGold() {
+        return belowZeroGold;
+    }
+
+    private static double ratio(long part, long whole) {
+        if (whole == 0) {
+            return 0;
+        }
+        return (double) part / whole;
+    }
+
+    /**
+     * @return A printable report of the results.
+     */
+    public String infoString() {
+        StringBuilder str = new StringBuilder();
+        str.append(String.format("games %d  won %.2f%%  lost %.2f%%  avg turns %.1f  avg turns to win %.1f%n",
+                games, getWinRate() * 100, getLossRate() * 100, getAverageTurns(), getAverageTurnsToWin()));
+        str.append(String.format("gold: avg %.1f  min %d  max %d%n", getAverageGold(), minGold, maxGold));
+        if (belowZeroGold > 0) {
+            str.append(String.format("  %8s %6.2f%%%n", "<0", ratio(belowZeroGold, games) * 100));
+        }
+        for (int i = 0; i < GOLD_BUCKETS; i++) {
+            if (goldBuckets[i] > 0) {
+                String range;
+                if (i == GOLD_BUCKETS - 1) {
+                    range = (i * GOLD_BUCKET_SIZE) + "+";
+                } else {
+                    range = (i * GOLD_BUCKET_SIZE) + "-" + ((i + 1) * GOLD_BUCKET_SIZE - 1);
+                }
+                str.append(String.format("  %8s %6.2f%%%n", range, ratio(goldBuckets[i], games) * 100));
+            }
+        }
+        return str.toString();
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * The GameView class is what an Agent gets to see of a game: the hunter, the town, the terrain around it and
+ * the shop's prices, but nothing it could use to change them. <p>
+ * A view always shows the game as it is now, so each game only needs one.
+ */
+public final class GameView {
+    // instance variables
+    private final TreasureHunter game;
+
+    GameView(TreasureHunter game) {
+        this.game = game;
+    }
+
+    // The hunter
+
+    public int getGold() {
+        return game.getHunter().getGold();
+    }
+
+    public boolean isSamurai() {
+        return game.getHunter().isSamurai();
+    }
+
+    public boolean hasItem(Item item) {
+        return game.getHunter().hasItem(item);
+    }
+
+    /**
+     * @return true if the hunter isn't carrying anything.
+     */
+    public boolean kitIsEmpty() {
+        return game.getHunter().getKit() == 0;
+    }
+
+    public boolean hasTreasure(Treasure treasure) {
+        return (game.getHunter().getTreasures() & treasure.getBit()) != 0;
+    }
+
+    /**
+     * @return How many different treasures the hunter has found, dust included.
+     */
+    public int getTreasureCount() {
+        return game.getHunter().getTreasureCount();
+    }
+
+    // The town and its terrain
+
+    public Terrain getTerrain() {
+        return game.getCurrentTown().getTerrain();
+    }
+
+    /**
+     * @return The item the hunter needs to leave town.
+     */
+    public Item getNeededItem() {
+        return game.getCurrentTown().getTerrain().getItem();
+    }
+
+    public boolean isToughTown() {
+        return game.getCurrentTown().isToughTown();
+    }
+
+    /**
+     * @return true once the hunter has hunted for treasure in this town.
+     */
+    public boolean isSearched() {
+        return game.getCurrentTown().isSearched();
+    }
+
+    /**
+     * @return true once the hunter has dug in this town.
+     */
+    public boolean isGoldFound() {
+        return game.getCurrentTown().isGoldFound();
+    }
+
+    // The shop
+
+    /**
+     * @param item The item to price.
+     * @return What the hunter would pay for it at this town's shop.
+     */
+    public int getCost(Item item) {
+        return game.getCurrentTown().getShop().getCostOfItem(item);
+    }
+
+    /**
+     * @param item The item to price.
+     * @return What this town's shop would pay the hunter for it.
+     */
+    public int getBuyBackCost(Item item) {
+        return game.getCurrentTown().getShop().getBuyBackCost(item);
+    }
+
+    /**
+     * @param item The item to price.
+     * @return true if the hunter has enough gold to buy it.
+     */
+    public boolean canAfford(Item item) {
+        return getGold() >= getCost(item);
+    }
+
+    // The game
+
+    public int getTurns() {
+        return game.getTurns();
+    }
+
+    public boolean isEasyMode() {
+        return game.isEasyMode();
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * The GreedyShopperAgent buys everything it can afford before it leaves town, so it is never stuck
+ * waiting for the right item; it only brawls once the shop has nothing left it can pay for.
+ */
+public class GreedyShopperAgent implements Agent {
+
+    public Action nextAction(GameView view) {
+        Item neededItem = view.getNeededItem();
+
+        if (!view.isSearched()) {
+            return Action.HUNT;
+        } else if (view.isSamurai() && !view.hasItem(Item.SWORD)) {
+            return Action.buy(Item.SWORD);
+        } else if (!view.hasItem(neededItem) && view.canAfford(neededItem)) {
+            return Action.buy(neededItem);
+        }
+        for (int i = 0; i < Item.count(); i++) {
+            Item item = Item.get(i);
+            if (item != Item.SWORD && !view.hasItem(item) && view.canAfford(item)) {
+                return Action.buy(item);
+            }
+        }
+        if (view.hasItem(Item.SHOVEL) && !view.isGoldFound()) {
+            return Action.DIG;
+        } else if (view.hasItem(neededItem)) {
+            return Action.MOVE;
+        } else {
+            return Action.TROUBLE;
+        }
+    }
+}
@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-import java.util.List;
 /**
  * Hunter Class<br /><br />
  * This class represents the treasure hunter character (the player) in the Treasure Hunt game.
@@ -10,13 +8,16 @@ public class
 Hunter {
     //instance variables
     private String hunterName;
-    private String[] kit;
+    private int kit; // one bit for each Item the hunter carries
     private  int gold;
-    private String[] treasureFound;
-    private String[] checkedList;
-    int num;
-    List<String> myList;
+    private int treasures; // one bit for each Treasure found
+    private int foundOrder; // the ordinal of each treasure found, two bits each, first one lowest
     private boolean samurai;
+    // cached status text; each piece is set back to null when what it shows changes
+    private static final String[] INVENTORY_TEXT = new String[1 << Item.count()]; // shared, indexed by kit
+    private String goldText;
+    private String treasureText;
+    private String infoText;
     /**
      * The base constructor of a Hunter assigns the name to the hunter and an empty kit.
      *
@@ -24,38 +25,12 @@ Hunter {
      * @param startingGold The gold the hunter starts with.
      */
     public Hunter(Boolean samurai, String hunterName, int startingGold) {
-        if (samurai) {
-            this.samurai = samurai;
-            myList = new ArrayList<>();
-            this.hunterName = hunterName;
-            kit = new String[8]; // only 6 possible items can be stored in kit
-            gold = startingGold;
-            num = 0;
-            checkedList = new String[3];
-            treasureFound = new String[4];
-            treasureFound[0] = "crown";
-            treasureFound[1] = "dust";
-            treasureFound[2] = "trophy";
-            treasureFound[3] = "gem";
-            checkedList[0] = "";
-            checkedList[1] = "";
-            checkedList[2] = "";
-        } else {
-            myList = new ArrayList<>();
-            this.hunterName = hunterName;
-            kit = new String[7]; // only 6 possible items can be stored in kit
-            gold = startingGold;
-            num = 0;
-            checkedList = new String[3];
-            treasureFound = new String[4];
-            treasureFound[0] = "crown";
-            treasureFound[1] = "dust";
-            treasureFound[2] = "trophy";
-            treasureFound[3] = "gem";
-            checkedList[0] = "";
-            checkedList[1] = "";
-            checkedList[2] = "";
-        }
+        this.samurai = samurai;
+        this.hunterName = hunterName;
+        kit = 0;
+        gold = startingGold;
+        treasures = 0;
+        foundOrder = 0;
     }
     //Accessors
     public String getHunterName() {
@@ -73,6 +48,7 @@ Hunter {
      */
     public void changeGold(int modifier) {
         gold += modifier;
+        goldChanged();
     }
 
 
@@ -83,24 +59,30 @@ Hunter {
      * @param costOfItem The cost of the item.
      * @return true if the item is successfully bought.
      */
-
-
     public boolean buyItem(String item, int costOfItem) {
-        if ((costOfItem == 0 && !isSamurai()) || gold < costOfItem || hasItemInKit(item)) {
+        Item found = Item.find(item);
+        return found != null && buyItem(found, costOfItem);
+    }
+
+    /**
+     * Buys an item from a shop.
+     *
+     * @param item The item the hunter is buying.
+     * @param costOfItem The cost of the item.
+     * @return true if the item is successfully bought.
+     */
+    public boolean buyItem(Item item, int costOfItem) {
+        if ((costOfItem == 0 && !isSamurai()) || gold < costOfItem || hasItem(item)) {
             return false;
         }
         gold -= costOfItem;
+        goldChanged();
         addItem(item);
         return true;
     }
 
     public boolean hasSword () {
-        for (int i = 0; i < kit.length && kit[i] != null; i++) {
-            if (kit[i].equals("sword")) {
-                return true;
-            }
-        }
-        return false;
+        return hasItem(Item.SWORD);
     }
 
     /**
@@ -112,58 +94,83 @@ Hunter {
      * @return true if the item was successfully sold.
      */
     public boolean sellItem(String item, int buyBackPrice) {
-        if (buyBackPrice <= 0 || !hasItemInKit(item)) {
+        Item found = Item.find(item);
+        return found != null && sellItem(found, buyBackPrice);
+    }
+
+    /**
+     * The Hunter is selling an item to a shop for gold.
+     *
+     * @param item The item being sold.
+     * @param buyBackPrice the amount of gold earned from selling the item
+     * @return true if the item was successfully sold.
+     */
+    public boolean sellItem(Item item, int buyBackPrice) {
+        if (buyBackPrice <= 0 || !hasItem(item)) {
             return false;
         }
         gold += buyBackPrice;
+        goldChanged();
         removeItemFromKit(item);
         return true;
     }
 
     /**
-     * Removes an item from the kit by setting the index of the item to null.
+     * Removes an item from the kit.
      *
      * @param item The item to be removed.
      */
     public void removeItemFromKit(String item) {
-        int itmIdx = findItemInKit(item);
-
-        // if item is found
-        if (itmIdx >= 0) {
-            kit[itmIdx] = null;
+        Item found = Item.find(item);
+        if (found != null) {
+            removeItemFromKit(found);
         }
     }
 
+    /**
+     * Removes an item from the kit by clearing its bit.
+     *
+     * @param item The item to be removed.
+     */
+    public void removeItemFromKit(Item item) {
+        kit &= ~item.getBit();
+        infoText = null;
+    }
+
     /**
      * Checks to make sure that the item is not already in the kit.
-     * If not, it assigns the item to an index in the kit with a null value ("empty" position).
+     * If not, it sets the item's bit in the kit.
      *
      * @param item The item to be added to the kit.
      * @return true if the item is not in the kit and has been added.
      */
-    private boolean addItem(String item) {
-        if (!hasItemInKit(item)) {
-            int idx = emptyPositionInKit();
-            kit[idx] = item;
+    private boolean addItem(Item item) {
+        if (!hasItem(item)) {
+            kit |= item.getBit();
+            infoText = null;
             return true;
         }
         return false;
     }
 
     /**
-     * Checks if the kit Array has the specified item.
+     * Checks if the kit has the specified item.
      *
      * @param item The search item
      * @return true if the item is found.
      */
     public boolean hasItemInKit(String item) {
-        for (String tmpItem : kit) {
-            if (item.equals(tmpItem)) {
-                // early return
-                return true;
-            }
-        }
-        return false;
+        return findItemInKit(item) != null;
+    }
+
+    /**
+     * Checks if the kit has the specified item.
+     *
+     * @param item The search item
+     * @return true if the item is found.
+     */
+    public boolean hasItem(Item item) {
+        return (kit & item.getBit()) != 0;
     }
 
      /**
@@ -173,25 +180,34 @@ Hunter {
      * @return The printable String representation of the inventory.
      */
     public String getInventory() {
-        String printableKit = "";
-        String space = " ";
-        for (String item : kit) {
-            if (item != null) {
-                printableKit += item + space;
+        // every hunter with the same kit shares the same text, so it is only ever built once
+        String printableKit = INVENTORY_TEXT[kit];
+        if (printableKit == null) {
+            StringBuilder str = new StringBuilder();
+            for (int i = 0; i < Item.count(); i++) {
+                Item item = Item.get(i);
+                if (hasItem(item)) {
+                    str.append(item.getName()).append(' ');
+                }
             }
+            printableKit = str.toString();
+            INVENTORY_TEXT[kit] = printableKit;
         }
         return printableKit;
     }
 
     public String getTreasure() {
-        String printableTreasure = "";
-        String space = " ";
-        for (String treasure : myList) {
-            if (treasure != null && !treasure.equals("dust")) {
-                printableTreasure += treasure + space;
+        if (treasureText == null) {
+            StringBuilder str = new StringBuilder();
+            for (int i = 0; i < getTreasureCount(); i++) {
+                Treasure treasure = getFoundTreasure(i);
+                if (treasure != Treasure.DUST) {
+                    str.append(treasure.getName()).append(' ');
+                }
             }
+            treasureText = str.toString();
         }
-        return printableTreasure;
+        return treasureText;
     }
 
 
@@ -199,112 +215,142 @@ Hunter {
      * @return A string representation of the hunter.
      */
     public String infoString() {
-        String str = hunterName + " has " + Colors.YELLOW +  gold + Colors.RESET + " gold";
+        if (infoText != null) {
+            return infoText;
+        }
+        if (goldText == null) {
+            goldText = hunterName + " has " + Colors.YELLOW +  gold + Colors.RESET + " gold";
+        }
+        StringBuilder str = new StringBuilder(goldText);
         if (!kitIsEmpty()) {
-            str += " and " + getInventory();
+            str.append(" and ").append(getInventory());
         }
         if (!treasureIsEmpty()) {
-            str+="\nTreasures found: " + getTreasure();
+            str.append("\nTreasures found: ").append(getTreasure());
         } else {
-            str+="\nTreasures found: none";
+            str.append("\nTreasures found: none");
         }
-        return str;
+        infoText = str.toString();
+        return infoText;
+    }
+
+    /**
+     * Throws away the cached text that shows the hunter's gold.
+     */
+    private void goldChanged() {
+        goldText = null;
+        infoText = null;
     }
     /**
-     * Searches kit Array for the index of the specified value.
+     * Looks up an item by name and checks whether it is in the kit.
      *
-     * @param item String to look for.
-     * @return The index of the item, or -1 if not found.
+     * @param item The name of the item to look for.
+     * @return The item, or null if it isn't in the kit (or isn't an item at all).
      */
-    private int findItemInKit(String item) {
-        for (int i = 0; i < kit.length; i++) {
-            String tmpItem = kit[i];
-
-            if (item.equals(tmpItem)) {
-                return i;
-            }
+    Item findItemInKit(String item) {
+        Item found = Item.find(item);
+        if (found != null && hasItem(found)) {
+            return found;
         }
-        return -1;
+        return null;
     }
     /**
-     * Check if the kit is empty - meaning all elements are null.
+     * Check if the kit is empty - meaning no item's bit is set.
      *
      * @return true if kit is completely empty.
      */
     private boolean kitIsEmpty() {
-        for (String string : kit) {
-            if (string != null) {
-                return false;
-            }
-        }
-        return true;
+        return kit == 0;
     }
 
     private boolean treasureIsEmpty() {
-        for (String treasure : myList) {
-            if (treasure != null) {
-                return false;
-            }
-        }
-        return true;
+        return treasures == 0;
     }
 
-    /**
-     * Finds the first index where there is a null value.
-     *
-     * @return index of empty index, or -1 if not found.
-     */
-    private int emptyPositionInKit() {
-        for (int i = 0; i < kit.length; i++) {
-            if (kit[i] == null) {
-                return i;
-            }
-        }
-        return -1;
-    }
     /**
      * reinitialize the kit to a list full of all items
      */
     public boolean testMode() {
-        addItem("Water");
-        addItem("Rope");
-        addItem("Machete");
-        addItem("Horse");
-        addItem("Boat");
-        addItem("Boots");
-        addItem("Shovel");
+        addItem(Item.WATER);
+        addItem(Item.ROPE);
+        addItem(Item.MACHETE);
+        addItem(Item.HORSE);
+        addItem(Item.BOAT);
+        addItem(Item.BOOTS);
+        addItem(Item.SHOVEL);
         return true;
     }
     public int getGold() {
         return gold;
     }
-    public void treasureCollected(String item) {
-        String elementToAdd = item;
-        if (!myList.contains(elementToAdd)) {
-            myList.add(elementToAdd);
-            System.out.println("You found " + item +"!");
-        }
 
-//        //int counter = 0;
-//        if (!item.equals("dust")) {
-//            for (int i=0; i< checkedList.length; i++) {
-//                if (checkedList[i].equals(item)) {
-//                    counter++;
-//                }
-//            }
-//            if (counter==0) {
-//                checkedList[num] = item;
-//                num++;
-//            }
-//            System.out.println("You found " + item +"!");
-//        } else {
-//            System.out.println("You found dust!");
+    /**
+     * @return The kit as a bitmask of Item bits, for saving.
+     */
+    int getKit() {
+        return kit;
     }
 
-    public boolean winGame() {
-        if (myList.contains("gem") && myList.contains("crown") && myList.contains("trophy")) {
+    /**
+     * Replaces the kit, for restoring a saved hunter.
+     *
+     * @param kit A bitmask of Item bits.
+     */
+    void restoreKit(int kit) {
+        this.kit = kit;
+        infoText = null;
+    }
+    /**
+     * Adds a treasure to the hunter's collection.
+     *
+     * @param item The treasure that was found.
+     * @return true if the hunter didn't already have it.
+     */
+    public boolean treasureCollected(String item) {
+        Treasure treasure = Treasure.find(item);
+        return treasure != null && treasureCollected(treasure);
+    }
+
+    /**
+     * Adds a treasure to the hunter's collection.
+     *
+     * @param treasure The treasure that was found.
+     * @return true if the hunter didn't already have it.
+     */
+    public boolean treasureCollected(Treasure treasure) {
+        if ((treasures & treasure.getBit()) == 0) {
+            foundOrder |= treasure.ordinal() << (2 * Integer.bitCount(treasures));
+            treasures |= treasure.getBit();
+            treasureText = null;
+            infoText = null;
             return true;
         }
         return false;
     }
+
+    public boolean winGame() {
+        return (treasures & Treasure.WIN_MASK) == Treasure.WIN_MASK;
+    }
+
+    /**
+     * @return How many different treasures the hunter has found, dust included.
+     */
+    public int getTreasureCount() {
+        return Integer.bitCount(treasures);
+    }
+
+    /**
+     * @param index 0 for the first treasure found, 1 for the second, and so on.
+     * @return The treasure found in that order.
+     */
+    public Treasure getFoundTreasure(int index) {
+        return Treasure.get((foundOrder >>> (2 * index)) & 3);
+    }
+
+    /**
+     * @return The treasures found as a bitmask of Treasure bits.
+     */
+    public int getTreasures() {
+        return treasures;
+    }
 }
@@ -0,0 +1,78 @@
+/**
+ * The Item enum is the catalogue of everything a hunter can carry in the Treasure Hunter game. <p>
+ * Each item has its own bit, so a whole kit fits in one int: checking, adding and removing an item
+ * is a single bit operation.
+ */
+public enum Item {
+    WATER("water"),
+    ROPE("rope"),
+    MACHETE("machete"),
+    HORSE("horse"),
+    BOAT("boat"),
+    SHOVEL("shovel"),
+    SWORD("sword"),
+    BOOTS("boots");
+
+    // static variables
+    private static final Item[] ITEMS = values();
+    // instance variables
+    private final String name;
+    private final int bit;
+
+    Item(String name) {
+        this.name = name;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * Looks up an item by the name a player would type.
+     *
+     * @param name The item's name in lower case.
+     * @return The item, or null if there is no such item.
+     */
+    public static Item find(String name) {
+        switch (name) {
+            case "water":
+                return WATER;
+            case "rope":
+                return ROPE;
+            case "machete":
+                return MACHETE;
+            case "horse":
+                return HORSE;
+            case "boat":
+                return BOAT;
+            case "shovel":
+                return SHOVEL;
+            case "sword":
+                return SWORD;
+            case "boots":
+                return BOOTS;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param ordinal The item's position in the catalogue.
+     * @return The item at that position.
+     */
+    public static Item get(int ordinal) {
+        return ITEMS[ordinal];
+    }
+
+    /**
+     * @return How many items there are in the catalogue.
+     */
+    public static int count() {
+        return ITEMS.length;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBit() {
+        return bit;
+    }
+}
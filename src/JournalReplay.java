@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The JournalReplay tool rebuilds games from an ActionJournal. <p>
+ * A game is replayed headless: its recorded choices are fed to the action methods and its recorded
+ * random numbers are fed to its towns, so it ends in exactly the state the player left it in,
+ * without any console input or output. <p>
+ * Usage: java JournalReplay journal-directory [game id]
+ */
+public class JournalReplay {
+
+    /**
+     * Replays one game.
+     *
+     * @param directory The journal directory.
+     * @param gameId The game to replay.
+     * @return The game as the player left it.
+     */
+    public static TreasureHunter replay(Path directory, int gameId) throws IOException {
+        GameRecords records = read(directory, gameId).get(gameId);
+        if (records == null) {
+            throw new IllegalArgumentException("There is no game " + gameId + " in " + directory);
+        }
+        return records.replay();
+    }
+
+    /**
+     * Reads the records of one game, or of every game, from every segment of a journal.
+     *
+     * @param directory The journal directory.
+     * @param gameId The game to read, or -1 for all of them.
+     * @return The records of each game, by game id.
+     */
+    public static Map<Integer, GameRecords> read(Path directory, int gameId) throws IOException {
+        Map<Integer, GameRecords> games = new TreeMap<>();
+        for (Path file : ActionJournal.segmentFiles(directory)) {
+            ByteBuffer records = ActionJournal.map(file);
+            for (int offset = 0; offset + ActionJournal.RECORD_SIZE <= records.limit(); offset += ActionJournal.RECORD_SIZE) {
+                byte type = records.get(offset + 4);
+                if (type == 0) {
+                    // never written, or claimed by a writer that didn't finish; later slots can still hold records
+                    continue;
+                }
+                int id = records.getInt(offset);
+                if (gameId == -1 || id == gameId) {
+                    games.computeIfAbsent(id, GameRecords::new)
+                            .add(type, records.get(offset + 5), records.getLong(offset + 8));
+                }
+            }
+        }
+        return games;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args[0]);
+        int gameId = -1;
+        if (args.length > 1) {
+            gameId = Integer.parseInt(args[1]);
+        }
+        for (GameRecords records : read(directory, gameId).values()) {
+            TreasureHunter game = records.replay();
+            String result = game.isWon() ? "won" : game.isLost() ? "lost" : "not finished";
+            System.out.println("Game " + records.gameId + " (" + game.getTurns() + " turns, " + result + ")");
+            System.out.println(game.getHunter().infoString());
+        }
+    }
+
+    /**
+     * Everything the journal holds for one game: its actions in order, and its random numbers in order.
+     */
+    public static class GameRecords {
+        private int gameId;
+        private byte[] types;
+        private byte[] codes;
+        private int actions;
+        private long[] nameChunks;
+        private int nameBytes;
+        private String mode;
+        private double[] randoms;
+        private int randomCount;
+
+        GameRecords(int gameId) {
+            this.gameId = gameId;
+            types = new byte[64];
+            codes = new byte[64];
+            nameChunks = new long[4];
+            randoms = new double[64];
+            mode = "";
+        }
+
+        void add(byte type, byte code, long value) {
+            if (type == ActionJournal.START) {
+                mode = String.valueOf((char) code);
+            } else if (type == ActionJournal.NAME) {
+                int chunk = nameBytes / 8;
+                if (chunk == nameChunks.length) {
+                    nameChunks = Arrays.copyOf(nameChunks, chunk * 2);
+                }
+                nameChunks[chunk] = value;
+                nameBytes += code;
+            } else if (type == ActionJournal.RANDOM) {
+                if (randomCount == randoms.length) {
+                    randoms = Arrays.copyOf(randoms, randomCount * 2);
+                }
+                randoms[randomCount++] = Double.longBitsToDouble(value);
+            } else {
+                if (actions == types.length) {
+                    types = Arrays.copyOf(types, actions * 2);
+                    codes = Arrays.copyOf(codes, actions * 2);
+                }
+                types[actions] = type;
+                codes[actions] = code;
+                actions++;
+            }
+        }
+
+        public int getGameId() {
+            return gameId;
+        }
+
+        private String name() {
+            byte[] bytes = new byte[nameBytes];
+            for (int i = 0; i < nameBytes; i++) {
+                bytes[i] = (byte) (nameChunks[i / 8] >>> (8 * (i % 8)));
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Plays the game again from its records.
+         *
+         * @return The game as the player left it.
+         */
+        public TreasureHunter replay() {
+            TreasureHunter game = TreasureHunter.headless(new ReplayRandom(Arrays.copyOf(randoms, randomCount)));
+            game.start(name(), mode);
+            int i = 0;
+            while (i < actions) {
+                char choice = (char) codes[i++];
+                if (choice == 'b' || choice == 's') {
+                    // a shop visit is followed by what was asked for, and the answer if the shopkeeper asked one
+                    Item item = null;
+                    boolean accepted = false;
+                    if (i < actions && types[i] == ActionJournal.ITEM) {
+                        item = codes[i] < 0 ? null : Item.get(codes[i]);
+                        i++;
+                    }
+                    if (i < actions && types[i] == ActionJournal.ANSWER) {
+                        accepted = codes[i] == 'y';
+                        i++;
+                    }
+                    // every visit is a turn, even one that ends without a sale
+                    if (item == null || !accepted) {
+                        game.leaveShop(String.valueOf(choice));
+                    } else if (choice == 'b') {
+                        game.buy(item.getName());
+                    } else {
+                        game.sell(item.getName());
+                    }
+                } else if (choice == 'e') {
+                    game.explore();
+                } else if (choice == 'm') {
+                    game.move();
+                } else if (choice == 'l') {
+                    game.lookForTrouble();
+                } else if (choice == 'd') {
+                    game.dig();
+                } else if (choice == 'h') {
+                    game.hunt();
+                }
+            }
+            return game;
+        }
+    }
+
+    /**
+     * A random source that hands out the numbers a game drew when it was first played.
+     */
+    private static class ReplayRandom extends GameRandom {
+        private double[] values;
+        private int next;
+
+        ReplayRandom(double[] values) {
+            super(0);
+            this.values = values;
+        }
+
+        public double nextDouble() {
+            if (next == values.length) {
+                throw new IllegalStateException("The journal ran out of random numbers before the game did");
+            }
+            return values[next++];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A JournalSession records one game into an ActionJournal. <p>
+ * The game calls it whenever the player makes a choice or answers the shopkeeper, and watch()
+ * wraps the game's random source so every random number the towns draw is recorded as well.
+ */
+public class JournalSession {
+    // instance variables
+    private ActionJournal journal;
+    private int gameId;
+
+    JournalSession(ActionJournal journal, int gameId) {
+        this.journal = journal;
+        this.gameId = gameId;
+    }
+
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Records the answers to the welcome questions.
+     *
+     * @param mode The mode letter.
+     * @param name The hunter's name.
+     */
+    public void start(String mode, String name) {
+        journal.append(gameId, ActionJournal.START, code(mode), 0);
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i += 8) {
+            long chunk = 0;
+            for (int j = 0; j < 8 && i + j < bytes.length; j++) {
+                chunk |= (bytes[i + j] & 0xFFL) << (8 * j);
+            }
+            journal.append(gameId, ActionJournal.NAME, (byte) Math.min(8, bytes.length - i), chunk);
+        }
+    }
+
+    /**
+     * @param choice What the player chose from the menu.
+     */
+    public void choice(String choice) {
+        journal.append(gameId, ActionJournal.CHOICE, code(choice), 0);
+    }
+
+    /**
+     * @param item The item the player asked the shopkeeper for.
+     */
+    public void item(String item) {
+        Item found = Item.find(item);
+        journal.append(gameId, ActionJournal.ITEM, (byte) (found == null ? -1 : found.ordinal()), 0);
+    }
+
+    /**
+     * @param option The player's answer to "Buy it (y/n)?" or "Sell it (y/n)?".
+     */
+    public void answer(String option) {
+        journal.append(gameId, ActionJournal.ANSWER, (byte) (option.equals("y") ? 'y' : 'n'), 0);
+    }
+
+    /**
+     * Wraps a random source so that every number drawn from it is recorded.
+     *
+     * @param random The game's random source.
+     * @return A random source that produces exactly the same numbers, and records them.
+     */
+    public GameRandom watch(GameRandom random) {
+        return new JournaledRandom(random, this);
+    }
+
+    private void random(double value) {
+        journal.append(gameId, ActionJournal.RANDOM, (byte) 0, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * @return The single letter the player typed, or '?' if they typed anything else.
+     */
+    private static byte code(String typed) {
+        if (typed.length() == 1 && typed.charAt(0) < 128) {
+            return (byte) typed.charAt(0);
+        }
+        return '?';
+    }
+
+    /**
+     * A random source that carries on from another one and records every number it hands out.
+     */
+    private static class JournaledRandom extends GameRandom {
+        private JournalSession session;
+
+        JournaledRandom(GameRandom source, JournalSession session) {
+            super(source.getSeed(), source.getGamma());
+            this.session = session;
+        }
+
+        public double nextDouble() {
+            double value = super.nextDouble();
+            session.random(value);
+            return value;
+        }
+    }
+}
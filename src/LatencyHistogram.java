@@ -0,0 +1,128 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts how long one kind of action takes. <p>
+ * Times go into power-of-two buckets of nanoseconds, so a percentile is only known to within a factor of
+ * two, but recording one is a handful of uncontended adds. Every counter is a LongAdder, which spreads
+ * updates from different threads over separate cells, so sessions recording at the same time never wait
+ * on each other or on whoever is reading the numbers.
+ */
+public class LatencyHistogram implements LatencyMXBean {
+    // constants
+    private static final int BUCKETS = 64;
+    // instance variables
+    private String action;
+    private LongAdder[] buckets;
+    private LongAdder count;
+    private LongAdder totalNanos;
+    private LongAccumulator maxNanos;
+
+    /**
+     * @param action The name of the action being timed.
+     */
+    public LatencyHistogram(String action) {
+        this.action = action;
+        buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+        count = new LongAdder();
+        totalNanos = new LongAdder();
+        maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records one action.
+     *
+     * @param nanos How long it took.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        // bucket b holds everything below 2^b nanoseconds that didn't fit in bucket b - 1
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMeanNanos() {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        return totalNanos.sum() / n;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getP50Nanos() {
+        return percentile(0.50);
+    }
+
+    public long getP90Nanos() {
+        return percentile(0.90);
+    }
+
+    public long getP99Nanos() {
+        return percentile(0.99);
+    }
+
+    /**
+     * @param fraction The fraction of actions, from 0 to 1.
+     * @return The time that at least that fraction of actions finished within, rounded up to the top of its bucket.
+     */
+    public long percentile(double fraction) {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            n += counts[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long wanted = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= wanted) {
+                return Math.min((1L << i) - 1, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * @return One line with the count, mean, percentiles and maximum.
+     */
+    public String infoString() {
+        return action + ": " + getCount() + " calls, mean " + getMeanNanos() + " ns, p50 " + getP50Nanos()
+                + " ns, p90 " + getP90Nanos() + " ns, p99 " + getP99Nanos() + " ns, max " + getMaxNanos() + " ns";
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * What JMX shows for the timings of one kind of action; see LatencyHistogram.
+ */
+public interface LatencyMXBean {
+    String getAction();
+
+    long getCount();
+
+    long getTotalNanos();
+
+    long getMeanNanos();
+
+    long getMaxNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    void reset();
+}
@@ -0,0 +1,258 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The Leaderboard ranks every hunter of every session against each other while they play. <p>
+ * Hunters are ranked by gold, then by how many treasures they have found, then by whether they have won,
+ * and among winners with the same gold and treasures by who won in the fewest turns. <p>
+ * Any number of threads can post scores at once without taking a shared lock. Each posted score is a new
+ * immutable Entry; the entries are kept in order in a ConcurrentSkipListSet, so the top hunters are always
+ * the first few entries, and every score is also counted in a Fenwick tree of AtomicLongs, so a hunter's
+ * rank is found by adding up log(scores) counters instead of walking the list. <p>
+ * The rank only tells apart what the Fenwick tree counts: gold (up to MAX_RANKED_GOLD), treasures and winning.
+ * Hunters who tie on those share a rank, however many turns their wins took. Reads made while scores are
+ * being posted see each score either before or after it changed, never half of it.
+ */
+public class Leaderboard {
+    // constants
+    public static final int MAX_RANKED_GOLD = 4095; // richer hunters all count as this rich when ranked
+    private static final int TREASURE_BITS = 3;
+    private static final int SCORES = (MAX_RANKED_GOLD + 1) << (TREASURE_BITS + 1);
+    // best first; the id and version only tell apart entries that tie on everything else
+    private static final Comparator<Entry> RANKING = Comparator.comparingInt((Entry entry) -> -entry.score)
+            .thenComparingInt(entry -> entry.winningTurns)
+            .thenComparingLong(entry -> entry.id)
+            .thenComparingLong(entry -> entry.version);
+    // instance variables
+    private ConcurrentHashMap<Long, Entry> latest;
+    private ConcurrentSkipListSet<Entry> ranked;
+    // tree[i] counts the entries whose score is in the range the Fenwick tree gives index i
+    private AtomicLongArray tree;
+
+    public Leaderboard() {
+        latest = new ConcurrentHashMap<>();
+        ranked = new ConcurrentSkipListSet<>(RANKING);
+        tree = new AtomicLongArray(SCORES + 1);
+    }
+
+    /**
+     * Posts a game's current score; nothing changes if the score is the same as last time.
+     *
+     * @param id The player's id, unique across sessions.
+     * @param game A started game.
+     */
+    public void update(long id, TreasureHunter game) {
+        Hunter hunter = game.getHunter();
+        int winningTurns = 0;
+        if (hunter.winGame()) {
+            winningTurns = game.getTurns();
+        }
+        update(id, hunter.getHunterName(), hunter.getGold(), hunter.getTreasureCount(), winningTurns);
+    }
+
+    /**
+     * Posts a hunter's current score; nothing changes if the score is the same as last time.
+     *
+     * @param id The player's id, unique across sessions.
+     * @param name The hunter's name.
+     * @param gold The hunter's gold.
+     * @param treasures How many treasures the hunter has found.
+     * @param winningTurns How many turns the hunter took to win, or 0 if they haven't won.
+     */
+    public void update(long id, String name, int gold, int treasures, int winningTurns) {
+        while (true) {
+            Entry old = latest.get(id);
+            Entry entry;
+            boolean swapped;
+            if (old == null) {
+                entry = new Entry(id, name, gold, treasures, winningTurns, 0);
+                swapped = latest.putIfAbsent(id, entry) == null;
+            } else {
+                if (old.gold == gold && old.treasures == treasures && old.winningTurns == winningTurns) {
+                    return;
+                }
+                entry = new Entry(id, name, gold, treasures, winningTurns, old.version + 1);
+                swapped = latest.replace(id, old, entry);
+            }
+            if (swapped) {
+                add(entry);
+                if (old != null) {
+                    drop(old);
+                }
+                // a later score may have been posted, and its poster gone looking for this entry, before it was added
+                if (latest.get(id) != entry) {
+                    drop(entry);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes a player off the board.
+     *
+     * @param id The player's id.
+     */
+    public void remove(long id) {
+        Entry old = latest.remove(id);
+        if (old != null) {
+            drop(old);
+        }
+    }
+
+    /**
+     * @param count How many hunters to list.
+     * @return The best hunters, best first.
+     */
+    public List<Entry> top(int count) {
+        List<Entry> top = new ArrayList<>(Math.min(count, 64));
+        for (Entry entry : ranked) {
+            if (top.size() == count) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+
+    /**
+     * @param id The player's id.
+     * @return The player's rank, from 1 for the best, or 0 if they aren't on the board.
+     */
+    public long rank(long id) {
+        Entry entry = latest.get(id);
+        if (entry == null) {
+            return 0;
+        }
+        return 1 + countAtLeast(entry.score + 1);
+    }
+
+    /**
+     * @param id The player's id.
+     * @return The player's latest score, or null if they aren't on the board.
+     */
+    public Entry get(long id) {
+        return latest.get(id);
+    }
+
+    /**
+     * @return How many hunters are on the board.
+     */
+    public int size() {
+        return latest.size();
+    }
+
+    /**
+     * Lists the best hunters, one per line.
+     *
+     * @param count How many hunters to list.
+     */
+    public String infoString(int count) {
+        StringBuilder text = new StringBuilder();
+        int place = 1;
+        for (Entry entry : top(count)) {
+            text.append(place++).append(". ").append(entry.infoString()).append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    private void add(Entry entry) {
+        if (ranked.add(entry)) {
+            count(entry.score, 1);
+        }
+    }
+
+    private void drop(Entry entry) {
+        if (ranked.remove(entry)) {
+            count(entry.score, -1);
+        }
+    }
+
+    // The Fenwick tree -- index i covers the scores (i - lowest bit of i, i], stored one above the score
+
+    private void count(int score, long delta) {
+        for (int i = score + 1; i <= SCORES; i += i & -i) {
+            tree.getAndAdd(i, delta);
+        }
+    }
+
+    /**
+     * @return How many entries have a score of at least the given one.
+     */
+    private long countAtLeast(int score) {
+        return countBelow(SCORES) - countBelow(score);
+    }
+
+    /**
+     * @return How many entries have a score below the given one.
+     */
+    private long countBelow(int score) {
+        long count = 0;
+        for (int i = score; i > 0; i -= i & -i) {
+            count += tree.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * The Entry class is one hunter's score at one moment; a new one is posted every time the score changes.
+     */
+    public static class Entry {
+        // instance variables
+        private final long id;
+        private final String name;
+        private final int gold;
+        private final int treasures;
+        private final int winningTurns;
+        private final long version;
+        // gold, treasures and winning packed in the order they rank in
+        private final int score;
+
+        private Entry(long id, String name, int gold, int treasures, int winningTurns, long version) {
+            this.id = id;
+            this.name = name;
+            this.gold = gold;
+            this.treasures = treasures;
+            this.winningTurns = winningTurns;
+            this.version = version;
+            int rankedGold = Math.max(0, Math.min(gold, MAX_RANKED_GOLD));
+            int won = winningTurns > 0 ? 1 : 0;
+            score = (rankedGold << (TREASURE_BITS + 1)) | (Math.min(treasures, (1 << TREASURE_BITS) - 1) << 1) | won;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getGold() {
+            return gold;
+        }
+
+        public int getTreasures() {
+            return treasures;
+        }
+
+        /**
+         * @return How many turns the hunter took to win, or 0 if they haven't won.
+         */
+        public int getWinningTurns() {
+            return winningTurns;
+        }
+
+        public String infoString() {
+            String text = name + ": " + gold + " gold, " + treasures + " treasures";
+            if (winningTurns > 0) {
+                text += ", won in " + winningTurns + " turns";
+            }
+            return text;
+        }
+    }
+}
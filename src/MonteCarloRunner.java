@@ -0,0 +1,179 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The MonteCarloRunner plays large numbers of headless games in every mode to measure how hard each mode is. <p>
+ * The games are split across a fork-join pool; each worker keeps its own GameStats and the
+ * results are merged as the tasks join, so the workers never share anything while playing. <p>
+ * Game number i of a run always uses the same random numbers, so a run with the same seed
+ * gives the same results no matter how many threads play it.
+ */
+public class MonteCarloRunner {
+    // constants
+    public static final String[] MODES = {"e", "n", "h", "t", "s"};
+    public static final String[] MODE_NAMES = {"easy", "normal", "hard", "test", "samurai"};
+    private static final int GAMES_PER_TASK = 1024;
+    // instance variables
+    private ForkJoinPool pool;
+    private Agent agent;
+    private int maxTurns;
+    private long seed;
+    private Rules rules;
+
+    /**
+     * @param pool The pool that plays the games.
+     * @param agent Plays every game.
+     * @param maxTurns Games still going after this many turns are stopped and counted as neither won nor lost.
+     * @param seed The seed for the whole run.
+     */
+    public MonteCarloRunner(ForkJoinPool pool, Agent agent, int maxTurns, long seed) {
+        this(pool, agent, maxTurns, seed, Rules.STANDARD);
+    }
+
+    /**
+     * @param pool The pool that plays the games.
+     * @param agent Plays every game.
+     * @param maxTurns Games still going after this many turns are stopped and counted as neither won nor lost.
+     * @param seed The seed for the whole run.
+     * @param rules The rules every game is played by.
+     */
+    public MonteCarloRunner(ForkJoinPool pool, Agent agent, int maxTurns, long seed, Rules rules) {
+        this.pool = pool;
+        this.agent = agent;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+        this.rules = rules;
+    }
+
+    /**
+     * Plays a number of games in one mode.
+     *
+     * @param mode The mode letter, as typed at the start of the game.
+     * @param games How many games to play.
+     * @return The combined results.
+     */
+    public GameStats run(String mode, int games) {
+        // every mode gets its own series of games
+        long modeSeed = GameRandom.forGame(seed, mode.charAt(0)).nextLong();
+        return pool.invoke(new GamesTask(mode, modeSeed, false, 0, games));
+    }
+
+    /**
+     * Plays the same games as run() would with a SimpleAgent, with the same results, but a whole
+     * BatchSimulator at a time instead of one TreasureHunter at a time. The agent is not used.
+     *
+     * @param mode The mode letter, as typed at the start of the game.
+     * @param games How many games to play.
+     * @return The combined results.
+     */
+    public GameStats runBatched(String mode, int games) {
+        return runBatched(mode, 0, games);
+    }
+
+    /**
+     * Plays part of the series of games runBatched() plays, so a run can be carried on where it stopped.
+     *
+     * @param mode The mode letter, as typed at the start of the game.
+     * @param firstGame The number of the first game to play.
+     * @param games How many games to play.
+     * @return The combined results.
+     */
+    public GameStats runBatched(String mode, int firstGame, int games) {
+        long modeSeed = GameRandom.forGame(seed, mode.charAt(0)).nextLong();
+        return pool.invoke(new GamesTask(mode, modeSeed, true, firstGame, firstGame + games));
+    }
+
+    /**
+     * Plays one game to the end, or until it runs out of turns.
+     *
+     * @param mode The mode letter.
+     * @param random The game's random source.
+     * @return The finished game.
+     */
+    public TreasureHunter play(String mode, GameRandom random) {
+        TreasureHunter game = TreasureHunter.headless(random);
+        game.playBy(rules);
+        game.start("hunter", mode);
+        game.play(agent, maxTurns);
+        return game;
+    }
+
+    /**
+     * Plays the games numbered from start (inclusive) to end (exclusive),
+     * splitting the range in half until it is small enough for one worker.
+     */
+    private class GamesTask extends RecursiveTask<GameStats> {
+        private static final long serialVersionUID = 1L;
+        private String mode;
+        private long modeSeed;
+        private boolean batched;
+        private int start;
+        private int end;
+
+        GamesTask(String mode, long modeSeed, boolean batched, int start, int end) {
+            this.mode = mode;
+            this.modeSeed = modeSeed;
+            this.batched = batched;
+            this.start = start;
+            this.end = end;
+        }
+
+        protected GameStats compute() {
+            if (end - start <= GAMES_PER_TASK) {
+                GameStats stats = new GameStats();
+                if (batched) {
+                    BatchSimulator batch = new BatchSimulator(mode, end - start, rules);
+                    batch.start(modeSeed, start, end - start);
+                    batch.play(maxTurns);
+                    batch.addTo(stats, end - start);
+                    return stats;
+                }
+                for (int i = start; i < end; i++) {
+                    stats.add(play(mode, GameRandom.forGame(modeSeed, i)));
+                }
+                return stats;
+            }
+            int middle = (start + end) >>> 1;
+            GamesTask left = new GamesTask(mode, modeSeed, batched, start, middle);
+            left.fork();
+            GameStats right = new GamesTask(mode, modeSeed, batched, middle, end).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /**
+     * Runs every mode and prints a report.
+     *
+     * @param args games per mode, seed, threads, "batch" to play with the BatchSimulator (all optional)
+     */
+    public static void main(String[] args) {
+        int games = 100000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length > 0) {
+            games = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            seed = Long.parseLong(args[1]);
+        }
+        if (args.length > 2) {
+            threads = Integer.parseInt(args[2]);
+        }
+        boolean batched = args.length > 3 && args[3].equals("batch");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        MonteCarloRunner runner = new MonteCarloRunner(pool, new SimpleAgent(), 1000, seed);
+        for (int i = 0; i < MODES.length; i++) {
+            long startTime = System.nanoTime();
+            GameStats stats;
+            if (batched) {
+                stats = runner.runBatched(MODES[i], games);
+            } else {
+                stats = runner.run(MODES[i], games);
+            }
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.printf("%s mode (%.0f games/s on %d threads)%n", MODE_NAMES[i], games / seconds, threads);
+            System.out.println(stats.infoString());
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * The OptimalPolicy class is what GameSolver works out for one mode: the chance of winning from every state
+ * of the game when playing as well as possible, and the move that gets it. <p>
+ * It is also an Agent, so the policy can be played like any other and its win rate checked against the
+ * solved chance of winning. <p>
+ * A state is the hunter's gold, the items and treasures that matter for winning, the terrain around the
+ * town and the town's flags, packed into one index. Terrains no town is ever in (the mountains, by the
+ * standard rules), items that can never help win the game (the rope, which only gets a hunter out of the
+ * mountains) and the dust are left out. Gold above the cap counts as the cap,
+ * so the chances are exact for games that never go over it and slightly pessimistic for games that do.
+ */
+public class OptimalPolicy implements Agent {
+    // constants -- the moves, as stored in the policy
+    static final int NOTHING = 0;
+    static final int HUNT = 1;
+    static final int DIG = 2;
+    static final int MOVE = 3;
+    static final int TROUBLE = 4;
+    static final int BUY = 5; // BUY + slot buys the item in that slot, BUY + slot count sells it
+    // the town flags
+    static final int TOUGH = 1;
+    static final int SEARCHED = 2;
+    static final int DUG = 4;
+    static final int FLAG_SETS = 8;
+    // the treasures that count for winning; the dust doesn't
+    static final int CROWN = 1;
+    static final int TROPHY = 2;
+    static final int GEM = 4;
+    static final int WON = CROWN | TROPHY | GEM;
+    static final int TREASURE_SETS = 8;
+    // instance variables
+    private String mode;
+    private int goldCap;
+    private Item[] items;
+    // the terrains a town can have, as the rules pick them
+    private Terrain[] terrains;
+    private int[] slots;
+    private double[] values;
+    private byte[] moves;
+    private double winProbability;
+    private int sweeps;
+
+    /**
+     * @param mode The mode letter.
+     * @param goldCap The most gold the states tell apart.
+     * @param items The items that matter, one per kit slot.
+     * @param terrains The terrains a town can have.
+     */
+    OptimalPolicy(String mode, int goldCap, Item[] items, Terrain[] terrains) {
+        this.mode = mode;
+        this.goldCap = goldCap;
+        this.items = items;
+        this.terrains = terrains;
+        slots = new int[Item.count()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = -1;
+        }
+        for (int slot = 0; slot < items.length; slot++) {
+            slots[items[slot].ordinal()] = slot;
+        }
+    }
+
+    // The state layout
+
+    int getKits() {
+        return 1 << items.length;
+    }
+
+    int getStateCount() {
+        return (goldCap + 1) * getKits() * TREASURE_SETS * terrains.length * FLAG_SETS;
+    }
+
+    /**
+     * @return The index of a state; flags vary fastest, then terrain, treasures, kit and gold.
+     */
+    int index(int gold, int kit, int treasures, int terrain, int flags) {
+        return (((gold * getKits() + kit) * TREASURE_SETS + treasures) * terrains.length + terrain) * FLAG_SETS + flags;
+    }
+
+    Item[] getItems() {
+        return items;
+    }
+
+    /**
+     * @return The kit slot of an item, or -1 if the item doesn't matter.
+     */
+    int slot(Item item) {
+        return slots[item.ordinal()];
+    }
+
+    /**
+     * @param kit A kit as a bitmask of Item bits.
+     * @return The same kit as a bitmask of slots.
+     */
+    int compactKit(int kit) {
+        int compact = 0;
+        for (int slot = 0; slot < items.length; slot++) {
+            if ((kit & items[slot].getBit()) != 0) {
+                compact |= 1 << slot;
+            }
+        }
+        return compact;
+    }
+
+    void solved(double[] values, byte[] moves, double winProbability, int sweeps) {
+        this.values = values;
+        this.moves = moves;
+        this.winProbability = winProbability;
+        this.sweeps = sweeps;
+    }
+
+    // Reading the solution
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getGoldCap() {
+        return goldCap;
+    }
+
+    /**
+     * @return The chance of winning a new game with the best possible play.
+     */
+    public double getWinProbability() {
+        return winProbability;
+    }
+
+    /**
+     * @return How many value iteration sweeps it took to settle.
+     */
+    public int getSweeps() {
+        return sweeps;
+    }
+
+    /**
+     * @param view A game in this policy's mode.
+     * @return The chance of winning it from here with the best possible play.
+     */
+    public double getValue(GameView view) {
+        return values[stateOf(view)];
+    }
+
+    public Action nextAction(GameView view) {
+        int move = moves[stateOf(view)];
+        if (move == HUNT) {
+            return Action.HUNT;
+        } else if (move == DIG) {
+            return Action.DIG;
+        } else if (move == MOVE) {
+            return Action.MOVE;
+        } else if (move == TROUBLE) {
+            return Action.TROUBLE;
+        } else if (move >= BUY + items.length) {
+            return Action.sell(items[move - BUY - items.length]);
+        } else if (move >= BUY) {
+            return Action.buy(items[move - BUY]);
+        }
+        // nothing helps any more
+        return Action.EXPLORE;
+    }
+
+    private int stateOf(GameView view) {
+        int gold = Math.max(0, Math.min(goldCap, view.getGold()));
+        int kit = 0;
+        for (int slot = 0; slot < items.length; slot++) {
+            if (view.hasItem(items[slot])) {
+                kit |= 1 << slot;
+            }
+        }
+        int treasures = 0;
+        if (view.hasTreasure(Treasure.CROWN)) {
+            treasures |= CROWN;
+        }
+        if (view.hasTreasure(Treasure.TROPHY)) {
+            treasures |= TROPHY;
+        }
+        if (view.hasTreasure(Treasure.GEM)) {
+            treasures |= GEM;
+        }
+        int terrain = terrainIndex(view.getTerrain());
+        int flags = 0;
+        if (view.isToughTown()) {
+            flags |= TOUGH;
+        }
+        if (view.isSearched()) {
+            flags |= SEARCHED;
+        }
+        if (view.isGoldFound()) {
+            flags |= DUG;
+        }
+        return index(gold, kit, treasures, terrain, flags);
+    }
+
+    private int terrainIndex(Terrain terrain) {
+        for (int i = 0; i < terrains.length; i++) {
+            if (terrains[i].getId() == terrain.getId()) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No town is ever in the " + terrain.getTerrainName());
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * The PriceTable class holds what a shop charges for every item and what it pays to buy each one back. <p>
+ * A table never changes once it is built, so any number of shops on any number of threads can share one.
+ * Each Rules keeps one table for each markdown, built the first time it is asked for, and there is the
+ * samurai's table: once a samurai carries a sword, every shopkeeper is too scared to charge anything.
+ */
+public final class PriceTable {
+    // constants
+    private static final int WATER_COST = 2;
+    private static final int ROPE_COST = 4;
+    private static final int MACHETE_COST = 6;
+    private static final int HORSE_COST = 12;
+    private static final int BOAT_COST = 20;
+    private static final int SHOVEL_COST = 8;
+    private static final int SWORD_COST = 0;
+    private static final int BOOTS_COST = 6;
+    // static variables
+    private static final PriceTable SWORD_PRICES = new PriceTable(new int[Item.count()], 0);
+    // instance variables
+    private final int[] costs;
+    private final int[] buyBackCosts;
+
+    private PriceTable(int[] costs, double markdown) {
+        this.costs = costs;
+        buyBackCosts = new int[costs.length];
+        for (int i = 0; i < costs.length; i++) {
+            buyBackCosts[i] = (int) (costs[i] * markdown);
+        }
+    }
+
+    /**
+     * @param markdown Percentage of markdown for selling items in decimal format.
+     * @return The standard game's price table for that markdown.
+     */
+    public static PriceTable forMarkdown(double markdown) {
+        return Rules.STANDARD.getPrices(markdown);
+    }
+
+    /**
+     * Builds a price table with costs of its own, for a game played by other Rules. The table isn't shared.
+     *
+     * @param costs What the shop charges for each item, by the item's ordinal.
+     * @param markdown Percentage of markdown for selling items in decimal format.
+     * @return The price table.
+     */
+    public static PriceTable withCosts(int[] costs, double markdown) {
+        return new PriceTable(costs.clone(), markdown);
+    }
+
+    /**
+     * @return The price table for a samurai who carries a sword: everything is free, and nothing can be sold.
+     */
+    public static PriceTable forSword() {
+        return SWORD_PRICES;
+    }
+
+    /**
+     * @return What the shop charges for each item in the standard game, by the item's ordinal.
+     */
+    static int[] standardCosts() {
+        int[] costs = new int[Item.count()];
+        costs[Item.WATER.ordinal()] = WATER_COST;
+        costs[Item.ROPE.ordinal()] = ROPE_COST;
+        costs[Item.MACHETE.ordinal()] = MACHETE_COST;
+        costs[Item.HORSE.ordinal()] = HORSE_COST;
+        costs[Item.BOAT.ordinal()] = BOAT_COST;
+        costs[Item.SHOVEL.ordinal()] = SHOVEL_COST;
+        costs[Item.SWORD.ordinal()] = SWORD_COST;
+        costs[Item.BOOTS.ordinal()] = BOOTS_COST;
+        return costs;
+    }
+
+    /**
+     * @param item The item being bought.
+     * @return What the shop charges for it.
+     */
+    public int getCost(Item item) {
+        return costs[item.ordinal()];
+    }
+
+    /**
+     * @param item The item being sold.
+     * @return What the shop pays for it, with the markdown applied.
+     */
+    public int getBuyBackCost(Item item) {
+        return buyBackCosts[item.ordinal()];
+    }
+}
@@ -0,0 +1,435 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The Rules class holds every number that decides how hard Treasure Hunter is: each mode's starting gold,
+ * markdown and toughness, what the shop charges for each item, and the odds of the town -- finding trouble,
+ * how much gold a brawl is worth, striking gold when digging, an item breaking on the way out of town, how often
+ * each terrain and each treasure turns up, and which item each terrain takes to cross. <p>
+ * Each number is a named parameter ("markdown.h", "cost.boat", "digChance", "item.ocean" ...), so a tool can look
+ * them up and change them by name without knowing what they mean. A Rules object never changes: with() makes a
+ * copy with one parameter changed, so any number of games on any number of threads can share one. STANDARD is
+ * the game as it has always been played. <p>
+ * Everything a town looks up while it is played is worked out when the rules are made: the terrains and treasures
+ * are laid out in tables with one slot per unit of weight, so picking one is a single array lookup.
+ */
+public final class Rules {
+    // constants -- the modes, in the order of MonteCarloRunner.MODES
+    public static final int EASY = 0;
+    public static final int NORMAL = 1;
+    public static final int HARD = 2;
+    public static final int TEST = 3;
+    public static final int SAMURAI = 4;
+    public static final String MODE_LETTERS = "enhts";
+    // where each parameter is kept
+    private static final int MODES = MODE_LETTERS.length();
+    private static final int START_GOLD = 0;
+    private static final int MARKDOWN = START_GOLD + MODES;
+    private static final int TOUGHNESS = MARKDOWN + MODES;
+    private static final int COSTS = TOUGHNESS + MODES;
+    private static final int TOUGH_TROUBLE = COSTS + Item.count();
+    private static final int MILD_TROUBLE = TOUGH_TROUBLE + 1;
+    private static final int BRAWL_GOLD = MILD_TROUBLE + 1;
+    private static final int DIG_CHANCE = BRAWL_GOLD + 1;
+    private static final int DIG_GOLD = DIG_CHANCE + 1;
+    private static final int BREAK_CHANCE = DIG_GOLD + 1;
+    private static final int TERRAIN_WEIGHTS = BREAK_CHANCE + 1;
+    private static final int TERRAIN_ITEMS = TERRAIN_WEIGHTS + Terrain.count();
+    private static final int TREASURE_WEIGHTS = TERRAIN_ITEMS + Terrain.count();
+    private static final int PARAMETERS = TREASURE_WEIGHTS + Treasure.count();
+    private static final int MOST_GOLD = 1000;
+    private static final int MOST_WEIGHT = 1000;
+    private static final String[] NAMES = new String[PARAMETERS];
+    private static final double[] LOWEST = new double[PARAMETERS];
+    private static final double[] HIGHEST = new double[PARAMETERS];
+    private static final boolean[] WHOLE = new boolean[PARAMETERS];
+    public static final Rules STANDARD;
+    // instance variables
+    private final double[] values;
+    private final int[] startGold;
+    private final int[] costs;
+    private final double toughTroubleChance;
+    private final double mildTroubleChance;
+    private final int brawlGold;
+    private final double digChance;
+    private final int digGold;
+    private final double breakChance;
+    // the terrain for each slot, and the Terrain for each terrain id
+    private final int[] terrainSlots;
+    private final Terrain[] terrains;
+    // the treasure for each slot
+    private final int[] treasureSlots;
+    // the price table for each markdown, built the first time a shop asks for it
+    private final ConcurrentMap<Double, PriceTable> prices = new ConcurrentHashMap<>();
+
+    static {
+        for (int mode = 0; mode < MODES; mode++) {
+            String letter = "." + MODE_LETTERS.charAt(mode);
+            define(START_GOLD + mode, "startGold" + letter, 0, MOST_GOLD, true);
+            define(MARKDOWN + mode, "markdown" + letter, 0, 1, false);
+            define(TOUGHNESS + mode, "toughness" + letter, 0, 1, false);
+        }
+        for (int i = 0; i < Item.count(); i++) {
+            // Hunter.buyItem() takes a cost of 0 to mean the item isn't for sale, so only the sword can cost nothing
+            int cheapest = Item.get(i) == Item.SWORD ? 0 : 1;
+            define(COSTS + i, "cost." + Item.get(i).getName(), cheapest, MOST_GOLD, true);
+        }
+        define(TOUGH_TROUBLE, "trouble.tough", 0, 1, false);
+        define(MILD_TROUBLE, "trouble.mild", 0, 1, false);
+        define(BRAWL_GOLD, "brawlGold", 1, MOST_GOLD, true);
+        define(DIG_CHANCE, "digChance", 0, 1, false);
+        define(DIG_GOLD, "digGold", 1, MOST_GOLD, true);
+        define(BREAK_CHANCE, "breakChance", 0, 1, false);
+        for (int id = 0; id < Terrain.count(); id++) {
+            String terrain = Terrain.get(id).getTerrainName().toLowerCase();
+            define(TERRAIN_WEIGHTS + id, "terrain." + terrain, 0, MOST_WEIGHT, true);
+            define(TERRAIN_ITEMS + id, "item." + terrain, 0, Item.count() - 1, true);
+        }
+        for (int i = 0; i < Treasure.count(); i++) {
+            define(TREASURE_WEIGHTS + i, "treasure." + Treasure.get(i).getName(), 0, MOST_WEIGHT, true);
+        }
+
+        double[] values = new double[PARAMETERS];
+        double[] gold = {60, 20, 20, 100, 20};
+        double[] markdown = {1, 0.5, 0.25, 0, 0};
+        double[] toughness = {0.25, 0.5, 0.75, 0, 0};
+        System.arraycopy(gold, 0, values, START_GOLD, MODES);
+        System.arraycopy(markdown, 0, values, MARKDOWN, MODES);
+        System.arraycopy(toughness, 0, values, TOUGHNESS, MODES);
+        int[] costs = PriceTable.standardCosts();
+        for (int i = 0; i < costs.length; i++) {
+            values[COSTS + i] = costs[i];
+        }
+        values[TOUGH_TROUBLE] = 0.66;
+        values[MILD_TROUBLE] = 0.33;
+        values[BRAWL_GOLD] = 10;
+        values[DIG_CHANCE] = 0.5;
+        values[DIG_GOLD] = 20;
+        values[BREAK_CHANCE] = 0.5;
+        // mountains never come up
+        for (int id = 1; id < Terrain.count(); id++) {
+            values[TERRAIN_WEIGHTS + id] = 1;
+        }
+        for (int id = 0; id < Terrain.count(); id++) {
+            values[TERRAIN_ITEMS + id] = Terrain.get(id).getItem().ordinal();
+        }
+        for (int i = 0; i < Treasure.count(); i++) {
+            values[TREASURE_WEIGHTS + i] = 1;
+        }
+        STANDARD = new Rules(values);
+    }
+
+    private Rules(double[] values) {
+        this.values = values;
+        startGold = new int[MODES];
+        for (int mode = 0; mode < MODES; mode++) {
+            startGold[mode] = (int) values[START_GOLD + mode];
+        }
+        costs = new int[Item.count()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = (int) values[COSTS + i];
+        }
+        toughTroubleChance = values[TOUGH_TROUBLE];
+        mildTroubleChance = values[MILD_TROUBLE];
+        brawlGold = (int) values[BRAWL_GOLD];
+        digChance = values[DIG_CHANCE];
+        digGold = (int) values[DIG_GOLD];
+        breakChance = values[BREAK_CHANCE];
+        terrainSlots = slots(values, TERRAIN_WEIGHTS, Terrain.count(), "terrain");
+        terrains = new Terrain[Terrain.count()];
+        for (int id = 0; id < terrains.length; id++) {
+            Terrain standard = Terrain.get(id);
+            Item item = Item.get((int) values[TERRAIN_ITEMS + id]);
+            if (item == standard.getItem()) {
+                terrains[id] = standard;
+            } else {
+                terrains[id] = new Terrain(id, standard.getTerrainName(), item.getName());
+            }
+        }
+        treasureSlots = slots(values, TREASURE_WEIGHTS, Treasure.count(), "treasure");
+    }
+
+    /**
+     * Lays out a table with one slot per unit of weight, holding the number of the thing the weight is for.
+     */
+    private static int[] slots(double[] values, int first, int count, String what) {
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += (int) values[first + i];
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one " + what + " has to have a weight");
+        }
+        int[] slots = new int[total];
+        int slot = 0;
+        for (int i = 0; i < count; i++) {
+            for (int w = 0; w < (int) values[first + i]; w++) {
+                slots[slot++] = i;
+            }
+        }
+        return slots;
+    }
+
+    private static void define(int parameter, String name, double lowest, double highest, boolean whole) {
+        NAMES[parameter] = name;
+        LOWEST[parameter] = lowest;
+        HIGHEST[parameter] = highest;
+        WHOLE[parameter] = whole;
+    }
+
+    /**
+     * @param letter A mode letter, as typed at the start of the game.
+     * @return The mode's number, or -1 if there is no such mode.
+     */
+    public static int mode(String letter) {
+        if (letter.length() != 1) {
+            return -1;
+        }
+        return MODE_LETTERS.indexOf(letter.charAt(0));
+    }
+
+    // Parameters by name
+
+    /**
+     * @return The name of every parameter.
+     */
+    public static List<String> parameterNames() {
+        return List.of(NAMES);
+    }
+
+    /**
+     * @param name A parameter's name.
+     * @return The parameter's value.
+     */
+    public double get(String name) {
+        return values[parameter(name)];
+    }
+
+    /**
+     * @param name A parameter's name.
+     * @return The mode the parameter only applies to (its starting gold, markdown or toughness), or -1 if it
+     * applies to every mode.
+     */
+    public static int modeOf(String name) {
+        int parameter = parameter(name);
+        if (parameter < COSTS) {
+            return parameter % MODES;
+        }
+        return -1;
+    }
+
+    /**
+     * @param name A parameter's name.
+     * @return true if the parameter is the item a terrain takes to cross, kept as the item's ordinal.
+     */
+    public static boolean isItem(String name) {
+        int parameter = parameter(name);
+        return parameter >= TERRAIN_ITEMS && parameter < TERRAIN_ITEMS + Terrain.count();
+    }
+
+    /**
+     * @param name A parameter's name.
+     * @return The lowest value the parameter can take.
+     */
+    public static double lowest(String name) {
+        return LOWEST[parameter(name)];
+    }
+
+    /**
+     * @param name A parameter's name.
+     * @return The highest value the parameter can take.
+     */
+    public static double highest(String name) {
+        return HIGHEST[parameter(name)];
+    }
+
+    /**
+     * @param name A parameter's name.
+     * @return true if the parameter only takes whole numbers (gold and costs).
+     */
+    public static boolean isWhole(String name) {
+        return WHOLE[parameter(name)];
+    }
+
+    /**
+     * Makes a copy of these rules with one parameter changed.
+     *
+     * @param name The parameter's name.
+     * @param value Its new value; whole-number parameters are rounded.
+     * @return The new rules.
+     * @throws IllegalArgumentException If the value is out of range, or it leaves every terrain or every
+     *                                  treasure without a weight.
+     */
+    public Rules with(String name, double value) {
+        int parameter = parameter(name);
+        if (WHOLE[parameter]) {
+            value = Math.round(value);
+        }
+        if (!(value >= LOWEST[parameter] && value <= HIGHEST[parameter])) {
+            throw new IllegalArgumentException(name + " must be from " + LOWEST[parameter] + " to "
+                    + HIGHEST[parameter] + ", not " + value);
+        }
+        double[] changed = values.clone();
+        changed[parameter] = value;
+        return new Rules(changed);
+    }
+
+    private static int parameter(String name) {
+        for (int i = 0; i < PARAMETERS; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("There is no rule called " + name);
+    }
+
+    // The rules, as the game uses them
+
+    /**
+     * @param mode EASY, NORMAL, HARD, TEST or SAMURAI.
+     * @return The gold a hunter starts with in that mode.
+     */
+    public int getStartGold(int mode) {
+        return startGold[mode];
+    }
+
+    /**
+     * @param mode EASY, NORMAL, HARD, TEST or SAMURAI.
+     * @return Percentage of markdown for selling items in that mode.
+     */
+    public double getMarkdown(int mode) {
+        return values[MARKDOWN + mode];
+    }
+
+    /**
+     * @param mode EASY, NORMAL, HARD, TEST or SAMURAI.
+     * @return How likely a town is to be tough in that mode.
+     */
+    public double getToughness(int mode) {
+        return values[TOUGHNESS + mode];
+    }
+
+    /**
+     * @param markdown Percentage of markdown for selling items in decimal format.
+     * @return The price table for these rules' costs and that markdown.
+     */
+    public PriceTable getPrices(double markdown) {
+        return prices.computeIfAbsent(markdown, m -> PriceTable.withCosts(costs, m));
+    }
+
+    /**
+     * Picks the terrain around a new town.
+     *
+     * @param rand A random number from 0 (inclusive) to 1 (exclusive).
+     * @return The terrain.
+     */
+    public Terrain drawTerrain(double rand) {
+        return terrains[drawTerrainId(rand)];
+    }
+
+    /**
+     * @param rand A random number from 0 (inclusive) to 1 (exclusive).
+     * @return The id of the terrain around a new town.
+     */
+    public int drawTerrainId(double rand) {
+        // the sum Town has always picked the terrain with, so the standard rules pick the same terrains
+        int slot = (int) (rand * terrainSlots.length + 1) - 1;
+        return terrainSlots[Math.min(slot, terrainSlots.length - 1)];
+    }
+
+    /**
+     * @param id A terrain's id.
+     * @return How likely a new town is to have that terrain.
+     */
+    public double getTerrainChance(int id) {
+        return (int) values[TERRAIN_WEIGHTS + id] / (double) terrainSlots.length;
+    }
+
+    /**
+     * @param id A terrain's id.
+     * @return The Terrain with that id, taking the item these rules say it takes to cross.
+     */
+    public Terrain getTerrain(int id) {
+        return terrains[id];
+    }
+
+    /**
+     * @param rand A random number from 0 (inclusive) to 1 (exclusive).
+     * @return The ordinal of the treasure hidden in a town.
+     */
+    public int drawTreasure(double rand) {
+        return treasureSlots[Math.min((int) (rand * treasureSlots.length), treasureSlots.length - 1)];
+    }
+
+    /**
+     * @param ordinal A treasure's ordinal.
+     * @return How likely that treasure is to be the one hidden in a town.
+     */
+    public double getTreasureChance(int ordinal) {
+        return (int) values[TREASURE_WEIGHTS + ordinal] / (double) treasureSlots.length;
+    }
+
+    /**
+     * @param tough true for a tough town.
+     * @return How likely the hunter is to find a fight there; the hunter wins with the rest of the odds.
+     */
+    public double getTroubleChance(boolean tough) {
+        if (tough) {
+            return toughTroubleChance;
+        }
+        return mildTroubleChance;
+    }
+
+    /**
+     * @return The most gold a brawl is won or lost for.
+     */
+    public int getBrawlGold() {
+        return brawlGold;
+    }
+
+    /**
+     * @return How likely digging is to strike gold.
+     */
+    public double getDigChance() {
+        return digChance;
+    }
+
+    /**
+     * @return The most gold that can be dug up in a town.
+     */
+    public int getDigGold() {
+        return digGold;
+    }
+
+    /**
+     * @return How likely an item is to break when it gets the hunter out of town.
+     */
+    public double getBreakChance() {
+        return breakChance;
+    }
+
+    /**
+     * @return Every parameter that differs from STANDARD (or all of them, for STANDARD), one "name = value" per line.
+     */
+    public String infoString() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < PARAMETERS; i++) {
+            if (this == STANDARD || values[i] != STANDARD.values[i]) {
+                lines.add(NAMES[i] + " = " + format(i, values[i]));
+            }
+        }
+        return String.join("\n", lines);
+    }
+
+    private static String format(int parameter, double value) {
+        if (parameter >= TERRAIN_ITEMS && parameter < TERRAIN_ITEMS + Terrain.count()) {
+            return Item.get((int) value).getName();
+        }
+        if (WHOLE[parameter]) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The RulesFile class loads the game's Rules from a text file, and loads them again whenever the file changes. <p>
+ * The file holds one rule per line, written "name = value" with the names Rules uses; "#" starts a comment.
+ * Rules that aren't in the file keep their standard values, and the item a terrain takes is written by its name
+ * (item.ocean = boat). Rules.infoString() writes rules the same way, so what the BalanceOptimizer prints can be
+ * pasted into a rules file. <p>
+ * The file is only ever read and parsed here, once per change: the Rules it makes are worked out into tables
+ * there and then, and swapped in whole, so get() is a single read that never locks or waits, and never sees
+ * half of one file and half of another. A change that doesn't parse is reported and the rules already loaded
+ * are kept. Each game takes the rules when it starts and keeps them to the end, so its odds never change under it.
+ */
+public class RulesFile {
+    // constants
+    // an editor's save can take more than one write; the file is only read once it has been quiet this long
+    private static final long SETTLE_MILLIS = 200;
+    // instance variables
+    private Path file;
+    private AtomicReference<Rules> current;
+    private WatchService watcher;
+    // only written while holding the lock
+    private volatile long reloads;
+
+    /**
+     * Loads the rules from a file.
+     *
+     * @param file The rules file.
+     * @throws IllegalArgumentException If the file doesn't parse.
+     */
+    public RulesFile(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        current = new AtomicReference<>(read(this.file));
+    }
+
+    /**
+     * @return The rules loaded most recently.
+     */
+    public Rules get() {
+        return current.get();
+    }
+
+    /**
+     * @return How many times the rules have been loaded again since the file was first read.
+     */
+    public long getReloads() {
+        return reloads;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Reads a rules file.
+     *
+     * @param file The rules file.
+     * @return The rules it describes.
+     * @throws IllegalArgumentException If the file doesn't parse.
+     */
+    public static Rules read(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8), file.getFileName().toString());
+    }
+
+    /**
+     * Parses the lines of a rules file.
+     *
+     * @param lines The lines.
+     * @param source What to call the file in error messages.
+     * @return The rules the lines describe.
+     * @throws IllegalArgumentException If a line doesn't parse.
+     */
+    public static Rules parse(List<String> lines, String source) {
+        Rules rules = Rules.STANDARD;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                int equals = line.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("a rule is written name = value");
+                }
+                String name = line.substring(0, equals).trim();
+                String value = line.substring(equals + 1).trim();
+                if (Rules.isItem(name)) {
+                    Item item = Item.find(value.toLowerCase());
+                    if (item == null) {
+                        throw new IllegalArgumentException("there is no item called " + value);
+                    }
+                    rules = rules.with(name, item.ordinal());
+                } else {
+                    rules = rules.with(name, Double.parseDouble(value));
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException is one too
+                throw new IllegalArgumentException(source + " line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Reads the file again and swaps its rules in, unless it doesn't parse.
+     *
+     * @param out Where the reload is reported.
+     * @return true if the new rules were swapped in.
+     */
+    public synchronized boolean reload(PrintStream out) {
+        Rules rules;
+        try {
+            rules = read(file);
+        } catch (IOException | IllegalArgumentException e) {
+            out.println("Kept the rules already loaded: " + e.getMessage());
+            return false;
+        }
+        current.set(rules);
+        reloads++;
+        out.println("Loaded the rules again from " + file);
+        return true;
+    }
+
+    /**
+     * Starts watching the file on a thread of its own, and loads the rules again every time it is written.
+     *
+     * @param out Where each reload is reported.
+     */
+    public synchronized void watch(PrintStream out) throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        watcher = file.getFileSystem().newWatchService();
+        // editors often write a new file and rename it over the old one, so creating it counts too
+        file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watching = new Thread(() -> watchFile(out), "rules-watcher");
+        watching.setDaemon(true);
+        watching.start();
+    }
+
+    /**
+     * Stops watching the file; the rules loaded last stay in place.
+     */
+    public synchronized void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    private void watchFile(PrintStream out) {
+        WatchService service = watcher;
+        try {
+            while (true) {
+                boolean changed = changed(service.take());
+                if (changed) {
+                    WatchKey key;
+                    while ((key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        changed(key);
+                    }
+                    reload(out);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed
+        }
+    }
+
+    /**
+     * @return true if any of the key's events was about the rules file.
+     */
+    private boolean changed(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // an OVERFLOW event has no file, and might have hidden a change to ours
+            Object changedFile = event.context();
+            changed |= changedFile == null || file.getFileName().equals(changedFile);
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The Screen class collects everything the game displays between two questions to the player into one frame,
+ * and sends the whole frame to the terminal with a single write when it is flushed. <p>
+ * The game flushes just before it waits for input, so each turn costs one write instead of one per line. <p>
+ * In diff mode the Screen remembers the last frame it showed and only re-sends the lines that changed,
+ * moving the cursor up to the top of the frame with an ANSI escape sequence. It always redraws the frame's
+ * last line, where the terminal echoed the player's answer, and clears everything below the new frame. A frame
+ * with no line break in it, such as the shop asking "Buy it (y/n)?", is a question that carries on from the
+ * frame on screen, so it is written below it as it is. The Screen assumes that a frame that doesn't end with a
+ * newline is answered with a line of input, and that every frame fits in the terminal, so that moving up from
+ * the cursor always reaches the top of the frame however far the terminal has scrolled.
+ */
+public class Screen extends OutputStream {
+    // constants
+    private static final byte[] CLEAR_SCREEN = "\033[2J\033[H".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLEAR_TO_END_OF_LINE = "\033[K".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLEAR_TO_END_OF_SCREEN = "\033[J".getBytes(StandardCharsets.US_ASCII);
+    // moves the cursor up: CURSOR_UP, the number of rows, then CURSOR_UP_END
+    private static final byte[] CURSOR_UP = "\033[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte CURSOR_UP_END = 'A';
+    private static final byte[] NEXT_LINE = "\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] NO_LINES = new byte[0][];
+    // instance variables
+    private OutputStream terminal;
+    private boolean diffMode;
+    private byte[] frame;
+    private int length;
+    private byte[][] shownLines;
+    // the row of the cursor, counting from the top of the frame on screen
+    private int cursorRow;
+    private Buffer changes;
+
+    /**
+     * @param terminal Where finished frames are written.
+     */
+    public Screen(OutputStream terminal) {
+        this(terminal, false);
+    }
+
+    /**
+     * @param terminal Where finished frames are written.
+     * @param diffMode true to only re-send the lines that changed since the last frame.
+     */
+    public Screen(OutputStream terminal, boolean diffMode) {
+        this.terminal = terminal;
+        this.diffMode = diffMode;
+        frame = new byte[4096];
+        length = 0;
+        shownLines = null; // nothing has been shown yet
+        cursorRow = 0;
+        changes = new Buffer();
+    }
+
+    public void write(int b) {
+        ensureRoom(1);
+        frame[length++] = (byte) b;
+    }
+
+    public void write(byte[] bytes, int offset, int count) {
+        ensureRoom(count);
+        System.arraycopy(bytes, offset, frame, length, count);
+        length += count;
+    }
+
+    /**
+     * Sends the frame to the terminal and starts a new one.
+     */
+    public void flush() throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (diffMode) {
+            writeChanges();
+        } else {
+            terminal.write(frame, 0, length);
+        }
+        terminal.flush();
+        length = 0;
+    }
+
+    public void close() throws IOException {
+        flush();
+        terminal.close();
+    }
+
+    private void ensureRoom(int count) {
+        if (length + count > frame.length) {
+            frame = Arrays.copyOf(frame, Math.max(frame.length * 2, length + count));
+        }
+    }
+
+    /**
+     * Compares the frame with the one on screen line by line and writes only the differences.
+     */
+    private void writeChanges() throws IOException {
+        if (shownLines != null && !hasLineBreak()) {
+            // a question below the frame on screen; the player's answer moves the cursor down a row
+            terminal.write(frame, 0, length);
+            cursorRow++;
+            return;
+        }
+        byte[][] lines = splitLines();
+        changes.reset();
+        int redrawFrom;
+        if (shownLines == null) {
+            changes.write(CLEAR_SCREEN);
+            shownLines = NO_LINES;
+            redrawFrom = 0;
+        } else {
+            // back to the start of the frame's top line
+            changes.write('\r');
+            if (cursorRow > 0) {
+                changes.write(CURSOR_UP);
+                writeNumber(cursorRow);
+                changes.write(CURSOR_UP_END);
+            }
+            // the player's answer was echoed after the last line shown, and any questions since are below it
+            redrawFrom = shownLines.length - 1;
+        }
+        int last = lines.length - 1;
+        for (int i = 0; i <= last; i++) {
+            if (i > 0) {
+                changes.write(NEXT_LINE);
+            }
+            if (i >= redrawFrom || !Arrays.equals(lines[i], shownLines[i])) {
+                changes.write(lines[i]);
+                if (i < last) {
+                    changes.write(CLEAR_TO_END_OF_LINE);
+                }
+            }
+        }
+        // clear the rest of the last line and everything below it, leaving the cursor where the player types
+        changes.write(CLEAR_TO_END_OF_SCREEN);
+        shownLines = lines;
+        cursorRow = last;
+        if (lines[last].length > 0) {
+            // the frame ends with a question, and the player's answer moves the cursor down a row
+            cursorRow++;
+        }
+        terminal.write(changes.bytes(), 0, changes.size());
+    }
+
+    private boolean hasLineBreak() {
+        for (int i = 0; i < length; i++) {
+            if (frame[i] == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes a positive number in decimal without making a String of it.
+     */
+    private void writeNumber(int number) {
+        if (number >= 10) {
+            writeNumber(number / 10);
+        }
+        changes.write('0' + number % 10);
+    }
+
+    /**
+     * @return The frame's lines without their line endings; a frame ending in a newline ends with an empty line.
+     */
+    private byte[][] splitLines() {
+        int count = 1;
+        for (int i = 0; i < length; i++) {
+            if (frame[i] == '\n') {
+                count++;
+            }
+        }
+        byte[][] lines = new byte[count][];
+        int start = 0;
+        int line = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || frame[i] == '\n') {
+                int end = i;
+                if (end > start && frame[end - 1] == '\r') {
+                    end--;
+                }
+                lines[line++] = Arrays.copyOfRange(frame, start, end);
+                start = i + 1;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * A reusable byte buffer for the escape sequences and lines of one diff.
+     */
+    private static class Buffer extends ByteArrayOutputStream {
+        byte[] bytes() {
+            return buf;
+        }
+
+        public void write(byte[] bytes) {
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
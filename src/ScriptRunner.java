@@ -0,0 +1,273 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The ScriptRunner plays recorded keystroke scripts through the game and checks what it printed against golden
+ * transcripts. <p>
+ * A script (name.script) holds the game's seed on its first line, followed by every line the player typed: the
+ * name, the mode, then the menu choices and the shop's questions. Its golden transcript (name.out, next to it) is
+ * everything the game printed the last time the script was recorded. <p>
+ * Each script is played by its own TreasureHunter, reading from the script in memory instead of the console and
+ * printing into memory, and the scripts are split across a fork-join pool, so a whole directory of them takes
+ * about as long as the slowest few games. A script that runs out of lines ends its game where it stops. <p>
+ * The scripts directory at the top of the project holds a small corpus of scripts covering every mode. <p>
+ * Usage: java ScriptRunner script-directory [threads] [record], with the threads and "record" in either order
+ */
+public class ScriptRunner {
+    // constants
+    public static final String SCRIPT_SUFFIX = ".script";
+    public static final String GOLDEN_SUFFIX = ".out";
+    private static final int SCRIPTS_PER_TASK = 16;
+    // small files are read in one go; mapping only pays off for big ones
+    private static final long MAP_THRESHOLD = 1 << 16;
+    // instance variables
+    private ForkJoinPool pool;
+    private boolean record;
+
+    /**
+     * @param pool The pool that plays the scripts.
+     * @param record true to write each script's transcript as its new golden transcript instead of checking it.
+     */
+    public ScriptRunner(ForkJoinPool pool, boolean record) {
+        this.pool = pool;
+        this.record = record;
+    }
+
+    /**
+     * Plays every script in a directory.
+     *
+     * @param directory The directory holding the scripts and their golden transcripts.
+     * @return How the scripts did.
+     */
+    public Results run(Path directory) throws IOException {
+        return run(scriptFiles(directory));
+    }
+
+    /**
+     * Plays a list of scripts.
+     *
+     * @param scripts The script files.
+     * @return How the scripts did.
+     */
+    public Results run(List<Path> scripts) {
+        return pool.invoke(new ScriptsTask(scripts, 0, scripts.size()));
+    }
+
+    /**
+     * Plays one script.
+     *
+     * @param script The script file.
+     * @return Everything the game printed.
+     */
+    public static byte[] play(Path script) throws IOException {
+        Scanner scanner = new Scanner(StandardCharsets.UTF_8.decode(read(script)));
+        long seed = Long.parseLong(scanner.nextLine().trim());
+        ByteArrayOutputStream transcript = new ByteArrayOutputStream(1 << 12);
+        PrintStream out = new PrintStream(transcript, false, StandardCharsets.UTF_8);
+        TreasureHunter game = new TreasureHunter(scanner, out, new GameRandom(seed));
+        try {
+            game.play();
+        } catch (NoSuchElementException e) {
+            // the script ends here
+        }
+        out.flush();
+        return transcript.toByteArray();
+    }
+
+    /**
+     * @return The scripts in a directory, in name order.
+     */
+    public static List<Path> scriptFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SCRIPT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * @return The golden transcript that goes with a script.
+     */
+    public static Path goldenFile(Path script) {
+        String name = script.getFileName().toString();
+        return script.resolveSibling(name.substring(0, name.length() - SCRIPT_SUFFIX.length()) + GOLDEN_SUFFIX);
+    }
+
+    private static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer contents = ByteBuffer.allocate((int) size);
+            while (contents.hasRemaining() && channel.read(contents) >= 0) {
+                // keep reading until the whole file is in
+            }
+            return contents.flip();
+        }
+    }
+
+    /**
+     * Plays one script and checks or records its transcript.
+     */
+    private void check(Path script, Results results) throws IOException {
+        byte[] transcript = play(script);
+        Path golden = goldenFile(script);
+        if (record) {
+            Files.write(golden, transcript);
+            results.recorded++;
+        } else if (!Files.exists(golden)) {
+            results.fail(script, "no golden transcript");
+        } else {
+            ByteBuffer expected = read(golden);
+            if (expected.equals(ByteBuffer.wrap(transcript))) {
+                results.passed++;
+            } else {
+                results.fail(script, firstDifference(expected, transcript));
+            }
+        }
+    }
+
+    /**
+     * @return Where a transcript first differs from the golden one, for the report.
+     */
+    private static String firstDifference(ByteBuffer expected, byte[] transcript) {
+        String[] expectedLines = StandardCharsets.UTF_8.decode(expected).toString().split("\\R", -1);
+        String[] lines = new String(transcript, StandardCharsets.UTF_8).split("\\R", -1);
+        int line = 0;
+        while (line < expectedLines.length && line < lines.length && expectedLines[line].equals(lines[line])) {
+            line++;
+        }
+        String wanted = line < expectedLines.length ? expectedLines[line] : "(end of transcript)";
+        String got = line < lines.length ? lines[line] : "(end of transcript)";
+        return "line " + (line + 1) + ": expected \"" + wanted + "\" but got \"" + got + "\"";
+    }
+
+    /**
+     * Plays a range of the scripts, splitting it in half until it is small enough for one worker.
+     */
+    private class ScriptsTask extends RecursiveTask<Results> {
+        private static final long serialVersionUID = 1L;
+        private List<Path> scripts;
+        private int start;
+        private int end;
+
+        ScriptsTask(List<Path> scripts, int start, int end) {
+            this.scripts = scripts;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Results compute() {
+            if (end - start <= SCRIPTS_PER_TASK) {
+                Results results = new Results();
+                for (int i = start; i < end; i++) {
+                    try {
+                        check(scripts.get(i), results);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (RuntimeException e) {
+                        results.fail(scripts.get(i), e.toString());
+                    }
+                }
+                return results;
+            }
+            int middle = (start + end) >>> 1;
+            ScriptsTask left = new ScriptsTask(scripts, start, middle);
+            left.fork();
+            Results results = new ScriptsTask(scripts, middle, end).compute();
+            results.merge(left.join());
+            return results;
+        }
+    }
+
+    /**
+     * The Results class counts how the scripts did and remembers why each failed one failed.
+     */
+    public static class Results {
+        // instance variables
+        private int passed;
+        private int recorded;
+        private List<String> failures = new ArrayList<>();
+
+        private void fail(Path script, String reason) {
+            failures.add(script.getFileName() + ": " + reason);
+        }
+
+        private void merge(Results other) {
+            passed += other.passed;
+            recorded += other.recorded;
+            failures.addAll(other.failures);
+        }
+
+        public int getPassed() {
+            return passed;
+        }
+
+        public int getRecorded() {
+            return recorded;
+        }
+
+        public List<String> getFailures() {
+            return failures;
+        }
+    }
+
+    /**
+     * @param args script directory, worker threads, "record" to write new golden transcripts (all but the directory optional)
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean record = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("record")) {
+                record = true;
+            } else {
+                threads = Integer.parseInt(args[i]);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Path> scripts = scriptFiles(directory);
+        Results results = new ScriptRunner(pool, record).run(scripts);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        Collections.sort(results.failures);
+        for (String failure : results.failures) {
+            System.out.println("FAILED " + failure);
+        }
+        if (record) {
+            System.out.printf("Recorded %d golden transcripts in %.2f s%n", results.recorded, seconds);
+        } else {
+            System.out.printf("%d scripts: %d passed, %d failed in %.2f s%n", scripts.size(), results.passed,
+                    results.failures.size(), seconds);
+        }
+        if (!results.failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
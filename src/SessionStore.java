@@ -0,0 +1,300 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Scanner;
+
+/**
+ * The SessionStore keeps games nobody is playing right now outside the Java heap, so any number of idle
+ * players cost the garbage collector nothing. <p>
+ * Each parked game is a GameSnapshot in a fixed-size record, in segments of direct memory or of
+ * memory-mapped files. A game only becomes a TreasureHunter, Hunter and Town again when its player comes
+ * back. The list of free records is kept in the free records themselves, so the heap holds nothing per
+ * session and stays the same size however many games are parked. <p>
+ * A parked game is found again by its ticket: the record number plus a random check code, so a ticket
+ * can't be guessed from another one. Parking and fetching games is synchronized; each one only copies a
+ * record's worth of bytes. <p>
+ * Record layout: check code (int, 0 while the record is free), next free record (int, only while free),
+ * snapshot.
+ */
+public class SessionStore implements Closeable {
+    // constants
+    public static final int RECORD_SIZE = 128;
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 19; // 64 MB segments
+    private static final int HEADER_SIZE = 8;
+    private static final int NO_RECORD = -1;
+    private static final String SEGMENT_PREFIX = "sessions-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // instance variables
+    private Path directory;
+    private int recordsPerSegment;
+    private ByteBuffer[] segments;
+    private int segmentCount;
+    private int freeRecord;
+    private int unusedRecord;
+    private int parked;
+    private SecureRandom codes;
+
+    /**
+     * Opens a store in direct memory; everything parked in it is gone when the JVM exits.
+     *
+     * @param recordsPerSegment How many records are added each time the store runs out of room.
+     */
+    public SessionStore(int recordsPerSegment) {
+        this.recordsPerSegment = recordsPerSegment;
+        segments = new ByteBuffer[4];
+        freeRecord = NO_RECORD;
+        codes = new SecureRandom();
+    }
+
+    public SessionStore() {
+        this(DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens a store in memory-mapped files, creating the directory if needed. Games parked by an earlier
+     * store in the same directory are still there.
+     *
+     * @param directory Where the segment files live.
+     * @param recordsPerSegment How many records fit in one segment file.
+     */
+    public SessionStore(Path directory, int recordsPerSegment) throws IOException {
+        this(recordsPerSegment);
+        this.directory = directory;
+        Files.createDirectories(directory);
+        while (Files.exists(segmentFile(segmentCount))) {
+            if (Files.size(segmentFile(segmentCount)) != (long) recordsPerSegment * RECORD_SIZE) {
+                throw new IOException(segmentFile(segmentCount) + " was written with a different segment size");
+            }
+            addSegment();
+        }
+        // every record of the old segments has been used; the free ones go back on the free list
+        unusedRecord = segmentCount * recordsPerSegment;
+        for (int record = unusedRecord - 1; record >= 0; record--) {
+            if (segment(record).getInt(offset(record)) == 0) {
+                free(record);
+            } else {
+                parked++;
+            }
+        }
+    }
+
+    /**
+     * Parks a game.
+     *
+     * @param game A started game.
+     * @return The ticket for getting the game back.
+     */
+    public synchronized long park(TreasureHunter game) {
+        checkFits(game);
+        int record = freeRecord;
+        if (record != NO_RECORD) {
+            freeRecord = segment(record).getInt(offset(record) + 4);
+        } else {
+            if (unusedRecord == segmentCount * recordsPerSegment) {
+                addSegment();
+            }
+            record = unusedRecord++;
+        }
+        // never 0, which marks a free record
+        int code = codes.nextInt() | 1;
+        write(record, game);
+        segment(record).putInt(offset(record), code);
+        parked++;
+        return ((long) record << 32) | (code & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Brings a parked game back to life; it stays parked as it was.
+     *
+     * @param ticket The ticket the game was parked with.
+     * @param scanner Where the game reads the player's input from (null for a headless game).
+     * @param out Where the game is displayed.
+     * @return The game, or null if nothing is parked under that ticket.
+     */
+    public synchronized TreasureHunter get(long ticket, Scanner scanner, PrintStream out) {
+        return get(ticket, scanner, out, Rules.STANDARD);
+    }
+
+    /**
+     * Brings a parked game back to life, to carry on by the given rules; it stays parked as it was.
+     *
+     * @return The game, or null if nothing is parked under that ticket.
+     */
+    public synchronized TreasureHunter get(long ticket, Scanner scanner, PrintStream out, Rules rules) {
+        int record = find(ticket);
+        if (record == NO_RECORD) {
+            return null;
+        }
+        ByteBuffer buffer = segment(record).slice(offset(record) + HEADER_SIZE, RECORD_SIZE - HEADER_SIZE);
+        return GameSnapshot.read(buffer, scanner, out, rules);
+    }
+
+    /**
+     * Brings a parked game back to life and frees its record.
+     *
+     * @return The game, or null if nothing is parked under that ticket.
+     */
+    public synchronized TreasureHunter take(long ticket, Scanner scanner, PrintStream out) {
+        return take(ticket, scanner, out, Rules.STANDARD);
+    }
+
+    /**
+     * Brings a parked game back to life, to carry on by the given rules, and frees its record.
+     *
+     * @return The game, or null if nothing is parked under that ticket.
+     */
+    public synchronized TreasureHunter take(long ticket, Scanner scanner, PrintStream out, Rules rules) {
+        TreasureHunter game = get(ticket, scanner, out, rules);
+        if (game != null) {
+            remove(ticket);
+        }
+        return game;
+    }
+
+    /**
+     * Parks a game again under the ticket it already has, after its player has taken a turn.
+     *
+     * @return false if nothing is parked under that ticket.
+     */
+    public synchronized boolean update(long ticket, TreasureHunter game) {
+        checkFits(game);
+        int record = find(ticket);
+        if (record == NO_RECORD) {
+            return false;
+        }
+        write(record, game);
+        return true;
+    }
+
+    /**
+     * Throws a parked game away.
+     *
+     * @return false if nothing is parked under that ticket.
+     */
+    public synchronized boolean remove(long ticket) {
+        int record = find(ticket);
+        if (record == NO_RECORD) {
+            return false;
+        }
+        free(record);
+        parked--;
+        return true;
+    }
+
+    /**
+     * @return How many games are parked.
+     */
+    public synchronized int size() {
+        return parked;
+    }
+
+    /**
+     * @return How many bytes of records the store holds, parked or free.
+     */
+    public synchronized long capacityBytes() {
+        return (long) segmentCount * recordsPerSegment * RECORD_SIZE;
+    }
+
+    /**
+     * @param game A started game.
+     * @return true if the game is small enough to park; only a very long name makes it too big.
+     */
+    public static boolean fits(TreasureHunter game) {
+        return GameSnapshot.size(game) <= RECORD_SIZE - HEADER_SIZE;
+    }
+
+    /**
+     * @return A ticket written so a player can type it back in.
+     */
+    public static String ticketText(long ticket) {
+        return Long.toUnsignedString(ticket, 36);
+    }
+
+    /**
+     * @return The ticket, or -1 if the text isn't one.
+     */
+    public static long parseTicket(String text) {
+        try {
+            return Long.parseUnsignedLong(text.trim(), 36);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Writes everything parked so far to disk, if the store is in files.
+     */
+    public synchronized void close() {
+        for (int i = 0; i < segmentCount; i++) {
+            if (segments[i] instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) segments[i]).force();
+            }
+        }
+    }
+
+    private void checkFits(TreasureHunter game) {
+        if (!fits(game)) {
+            throw new IllegalArgumentException("The hunter's name is too long to park the game");
+        }
+    }
+
+    /**
+     * @return The ticket's record, or NO_RECORD if the ticket is wrong or the record is free.
+     */
+    private int find(long ticket) {
+        int record = (int) (ticket >>> 32);
+        int code = (int) ticket;
+        if (record < 0 || record >= unusedRecord || code == 0 || segment(record).getInt(offset(record)) != code) {
+            return NO_RECORD;
+        }
+        return record;
+    }
+
+    private void write(int record, TreasureHunter game) {
+        GameSnapshot.write(game, segment(record).slice(offset(record) + HEADER_SIZE, RECORD_SIZE - HEADER_SIZE));
+    }
+
+    private void free(int record) {
+        ByteBuffer segment = segment(record);
+        segment.putInt(offset(record), 0);
+        segment.putInt(offset(record) + 4, freeRecord);
+        freeRecord = record;
+    }
+
+    private ByteBuffer segment(int record) {
+        return segments[record / recordsPerSegment];
+    }
+
+    private int offset(int record) {
+        return (record % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private void addSegment() {
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount * 2);
+        }
+        int bytes = recordsPerSegment * RECORD_SIZE;
+        if (directory == null) {
+            segments[segmentCount++] = ByteBuffer.allocateDirect(bytes);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(segmentFile(segmentCount), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segments[segmentCount++] = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't open another session segment", e);
+        }
+    }
+
+    private Path segmentFile(int number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+}
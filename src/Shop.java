@@ -1,4 +1,5 @@
 import java.awt.*;
+import java.io.PrintStream;
 import java.util.Scanner;
 
 /**
@@ -9,76 +10,167 @@ import java.util.Scanner;
 
 public class Shop {
     // constants
-    private static  int WATER_COST = 2;
-    private static  int ROPE_COST = 4;
-    private static  int MACHETE_COST = 6;
-    private static  int HORSE_COST = 12;
-    private static  int BOAT_COST = 20;
-    private static  int SHOVEL_COST = 8;
-    private static int Sword_cost =0;
-    private static int BOOTS_COST =6;
-    // static variables
-    private static final Scanner SCANNER = new Scanner(System.in);
+    // the price list only depends on the prices and on how the shopkeeper greets the customer, so the shop
+    // keeps one of each style once it has been built
+    private static final int PLAIN_LIST = 0;
+    private static final int SAMURAI_LIST = 1;
+    private static final int SWORD_LIST = 2;
     // instance variables
-    private double markdown;
+    private Scanner scanner;
+    private PrintStream out;
+    private EventSink events;
+    // false for a headless game, which records nothing in GameMetrics
+    private boolean metered;
+    private PriceTable prices;
+    // the price list in each style, built the first time it is shown
+    private String[] priceLists = new String[3];
     private Hunter customer;
     private boolean samuraiMode;
     private boolean Sword;
+    private JournalSession journal;
     /**
      * The Shop constructor takes in a markdown value and leaves customer null until one enters the shop.
      *
      * @param markdown Percentage of markdown for selling items in decimal format.
+     * @param scanner Where the customer's answers come from.
+     * @param out Where the shopkeeper asks the customer questions.
+     * @param events Where the shopkeeper's answers go.
      */
-    public Shop(double markdown) {
-        this.markdown = markdown;
+    public Shop(double markdown, Scanner scanner, PrintStream out, EventSink events) {
+        this(PriceTable.forMarkdown(markdown), scanner, out, events);
+    }
+
+    /**
+     * Makes a shop that charges from its own price table, for a game played by other Rules.
+     *
+     * @param prices What the shop charges and pays for every item.
+     * @param scanner Where the customer's answers come from.
+     * @param out Where the shopkeeper asks the customer questions.
+     * @param events Where the shopkeeper's answers go.
+     */
+    public Shop(PriceTable prices, Scanner scanner, PrintStream out, EventSink events) {
+        this.scanner = scanner;
+        this.out = out;
+        this.events = events;
+        metered = events.isMetered();
+        this.prices = prices;
         customer = null; // customer is set in the enter method
         this.samuraiMode = false;
     }
-    public Shop(boolean Samurai, double markdown) {
+    public Shop(boolean Samurai, double markdown, Scanner scanner, PrintStream out, EventSink events) {
+        this(Samurai, PriceTable.forMarkdown(Samurai ? markdown : 0), scanner, out, events);
+    }
+    public Shop(boolean Samurai, PriceTable prices, Scanner scanner, PrintStream out, EventSink events) {
+        this.scanner = scanner;
+        this.out = out;
+        this.events = events;
+        metered = events.isMetered();
         this.samuraiMode = Samurai;
         if (samuraiMode) {
-            this.markdown = markdown;
-            Sword_cost = 0;
             Sword = false;
         }
+        this.prices = prices;
     }    /**
          * Method for entering the shop.
          *
          * @param hunter the Hunter entering the shop
          * @param buyOrSell String that determines if hunter is "B"uying or "S"elling
-         * @return a String to be used for printing in the latest news
          */
-    public String enter(Hunter hunter, String buyOrSell) {
+    public void enter(Hunter hunter, String buyOrSell) {
         customer = hunter;
         if (buyOrSell.equals("b")) {
-            System.out.println("Welcome to the shop! We have the finest wares in town.");
-            System.out.println("Currently we have the following items:");
-            System.out.println(inventory());
-            System.out.print("What're you lookin' to buy? ");
-            String item = SCANNER.nextLine().toLowerCase();
+            out.println("Welcome to the shop! We have the finest wares in town.");
+            out.println("Currently we have the following items:");
+            out.println(inventory());
+            out.print("What're you lookin' to buy? ");
+            String item = readLine().toLowerCase();
+            recordItem(item);
             int cost = checkMarketPrice(item, true);
-            System.out.print("It'll cost you " + cost + " gold. Buy it (y/n)? ");
-            String option = SCANNER.nextLine().toLowerCase();
+            out.print("It'll cost you " + cost + " gold. Buy it (y/n)? ");
+            String option = readLine().toLowerCase();
+            recordAnswer(option);
             if (option.equals("y")) {
                 buyItem(item);
             }
 
         } else  {
-            System.out.println("What're you lookin' to sell? ");
-            System.out.print("You currently have the following items: " + Colors.PURPLE + customer.getInventory() + Colors.RESET);
-            String item = SCANNER.nextLine().toLowerCase();
+            out.println("What're you lookin' to sell? ");
+            out.print("You currently have the following items: " + Colors.PURPLE + customer.getInventory() + Colors.RESET);
+            String item = readLine().toLowerCase();
+            recordItem(item);
             int cost = checkMarketPrice(item, false);
             if (cost == 0) {
-                System.out.println("We don't want none of those.");
+                events.event(GameEvent.NOT_WANTED, customer, 0, item);
             } else  {
-                System.out.print("It'll get you " + cost + " gold. Sell it (y/n)? ");
-                String option = SCANNER.nextLine().toLowerCase();
+                out.print("It'll get you " + cost + " gold. Sell it (y/n)? ");
+                String option = readLine().toLowerCase();
+                recordAnswer(option);
                 if (option.equals("y")) {
                     sellItem(item);
                 }
             }
         }
-        return "You left the shop";
+    }
+
+    /**
+     * Records what the customer asks for and answers in the game's journal.
+     *
+     * @param session The journal handle for the game.
+     */
+    public void journalTo(JournalSession session) {
+        journal = session;
+    }
+
+    private void recordItem(String item) {
+        if (journal != null) {
+            journal.item(item);
+        }
+    }
+
+    private void recordAnswer(String option) {
+        if (journal != null) {
+            journal.answer(option);
+        }
+    }
+
+    /**
+     * Shows everything the shopkeeper has said so far and waits for the customer's answer.
+     *
+     * @return The line the customer typed.
+     */
+    private String readLine() {
+        out.flush();
+        return scanner.nextLine();
+    }
+
+    /**
+     * Buys an item without asking the customer anything; the same as answering "y" in the shop.
+     *
+     * @param hunter the Hunter buying the item
+     * @param item The item being bought.
+     */
+    public void buy(Hunter hunter, String item) {
+        customer = hunter;
+        recordItem(item);
+        recordAnswer("y");
+        buyItem(item);
+    }
+
+    /**
+     * Sells an item without asking the customer anything; the same as answering "y" in the shop.
+     *
+     * @param hunter the Hunter selling the item
+     * @param item The item being sold.
+     */
+    public void sell(Hunter hunter, String item) {
+        customer = hunter;
+        recordItem(item);
+        if (checkMarketPrice(item, false) == 0) {
+            events.event(GameEvent.NOT_WANTED, customer, 0, item);
+        } else {
+            recordAnswer("y");
+            sellItem(item);
+        }
     }
 
     /**
@@ -88,41 +180,56 @@ public class Shop {
      * @return the string representing the shop's items available for purchase and their prices.
      */
     public String inventory() {
-        String str = "";
+        PriceTable prices = currentPrices();
+        int style;
         if (samuraiMode && customer.hasSword()) {
-            WATER_COST = 0;
-            ROPE_COST = 0;
-            MACHETE_COST = 0;
-            HORSE_COST = 0;
-            BOAT_COST = 0;
-            Sword_cost = 0;
-            SHOVEL_COST = 0;
-            BOOTS_COST = 0;
-            str+= "Sword: " + Sword_cost + " gold\n";
-            str += "Water: " + WATER_COST + " gold\n";
-            str += "Rope: " + ROPE_COST + " gold\n";
-            str += "Machete: " + MACHETE_COST + " gold\n";
-            str += "Horse: " + HORSE_COST + " gold\n";
-            str += "Boat: " + BOAT_COST + " gold\n";
-            str += "Shovel: " + SHOVEL_COST + " gold\n";
-            str+= "Boots: " + BOOTS_COST + "gold\n";
-        } else if (samuraiMode){
-            str += "Water: " + WATER_COST + " gold\n";
-            str += "Rope: " + ROPE_COST + " gold\n";
-            str += "Machete: " + MACHETE_COST + " gold\n";
-            str += "Horse: " + HORSE_COST + " gold\n";
-            str += "Boat: " + BOAT_COST + " gold\n";
-            str += "Shovel: " + SHOVEL_COST + " gold\n";
-            str+= "Sword " + Sword_cost + " gold\n";
-            str+= "Boots " + BOOTS_COST + " gold\n";
+            style = SWORD_LIST;
+        } else if (samuraiMode) {
+            style = SAMURAI_LIST;
+        } else {
+            style = PLAIN_LIST;
+        }
+        if (priceLists[style] == null) {
+            priceLists[style] = priceList(prices, style);
+        }
+        return priceLists[style];
+    }
+
+    /**
+     * Builds the text of a price list.
+     *
+     * @param prices The prices to show.
+     * @param style Which of the three ways of listing the items to use.
+     * @return the string representing the shop's items available for purchase and their prices.
+     */
+    private static String priceList(PriceTable prices, int style) {
+        String str = "";
+        if (style == SWORD_LIST) {
+            str+= "Sword: " + prices.getCost(Item.SWORD) + " gold\n";
+            str += "Water: " + prices.getCost(Item.WATER) + " gold\n";
+            str += "Rope: " + prices.getCost(Item.ROPE) + " gold\n";
+            str += "Machete: " + prices.getCost(Item.MACHETE) + " gold\n";
+            str += "Horse: " + prices.getCost(Item.HORSE) + " gold\n";
+            str += "Boat: " + prices.getCost(Item.BOAT) + " gold\n";
+            str += "Shovel: " + prices.getCost(Item.SHOVEL) + " gold\n";
+            str+= "Boots: " + prices.getCost(Item.BOOTS) + "gold\n";
+        } else if (style == SAMURAI_LIST){
+            str += "Water: " + prices.getCost(Item.WATER) + " gold\n";
+            str += "Rope: " + prices.getCost(Item.ROPE) + " gold\n";
+            str += "Machete: " + prices.getCost(Item.MACHETE) + " gold\n";
+            str += "Horse: " + prices.getCost(Item.HORSE) + " gold\n";
+            str += "Boat: " + prices.getCost(Item.BOAT) + " gold\n";
+            str += "Shovel: " + prices.getCost(Item.SHOVEL) + " gold\n";
+            str+= "Sword " + prices.getCost(Item.SWORD) + " gold\n";
+            str+= "Boots " + prices.getCost(Item.BOOTS) + " gold\n";
         } else {
-            str += "Water: " + WATER_COST + " gold\n";
-            str += "Rope: " + ROPE_COST + " gold\n";
-            str += "Machete: " + MACHETE_COST + " gold\n";
-            str += "Horse: " + HORSE_COST + " gold\n";
-            str += "Boat: " + BOAT_COST + " gold\n";
-            str += "Shovel: " + SHOVEL_COST + " gold\n";
-            str+= "Boots: " + BOOTS_COST + " gold\n";
+            str += "Water: " + prices.getCost(Item.WATER) + " gold\n";
+            str += "Rope: " + prices.getCost(Item.ROPE) + " gold\n";
+            str += "Machete: " + prices.getCost(Item.MACHETE) + " gold\n";
+            str += "Horse: " + prices.getCost(Item.HORSE) + " gold\n";
+            str += "Boat: " + prices.getCost(Item.BOAT) + " gold\n";
+            str += "Shovel: " + prices.getCost(Item.SHOVEL) + " gold\n";
+            str+= "Boots: " + prices.getCost(Item.BOOTS) + " gold\n";
         }
         return Colors.PURPLE + str + Colors.RESET;
     }
@@ -133,35 +240,15 @@ public class Shop {
      * @param item The item being bought.
      */
     public void buyItem(String item) {
-        if (customer.hasSword()) {
-            WATER_COST = 0;
-            ROPE_COST = 0;
-            MACHETE_COST = 0;
-            HORSE_COST = 0;
-            BOAT_COST = 0;
-            Sword_cost = 0;
-            BOOTS_COST = 0;
-            SHOVEL_COST = 0;
-            int costOfItem = checkMarketPrice(item, true);
-            if (customer.buyItem(item, costOfItem)) {
-                System.out.println("Ye' got yerself a " + item + ". Come again soon.");
-            } else {
-                System.out.println("Hmm, either you don't have enough gold or you've already got one of those!");
-            }
+        long start = metered ? System.nanoTime() : 0;
+        int costOfItem = checkMarketPrice(item, true);
+        if (customer.buyItem(item, costOfItem)) {
+            events.event(GameEvent.BOUGHT, customer, costOfItem, item);
         } else {
-            WATER_COST = 2;
-            ROPE_COST = 4;
-            MACHETE_COST = 6;
-            HORSE_COST = 12;
-            BOAT_COST = 20;
-            SHOVEL_COST = 8;
-            BOOTS_COST = 6;
-            int costOfItem = checkMarketPrice(item, true);
-            if (customer.buyItem(item, costOfItem)) {
-                System.out.println("Ye' got yerself a " + item + ". Come again soon.");
-            } else {
-                System.out.println("Hmm, either you don't have enough gold or you've already got one of those!");
-            }
+            events.event(GameEvent.CANT_BUY, customer, costOfItem, item);
+        }
+        if (metered) {
+            GameMetrics.time(GameMetrics.BUY, start);
         }
     }
 
@@ -171,11 +258,15 @@ public class Shop {
      * @param item The item being sold.
      */
     public void sellItem(String item) {
+        long start = metered ? System.nanoTime() : 0;
         int buyBackPrice = checkMarketPrice(item, false);
         if (customer.sellItem(item, buyBackPrice)) {
-            System.out.println("Pleasure doin' business with you.");
+            events.event(GameEvent.SOLD, customer, buyBackPrice, item);
         } else {
-            System.out.println("Stop stringin' me along!");
+            events.event(GameEvent.CANT_SELL, customer, buyBackPrice, item);
+        }
+        if (metered) {
+            GameMetrics.time(GameMetrics.SELL, start);
         }
     }
 
@@ -195,31 +286,27 @@ public class Shop {
     }
 
     /**
-     * Checks the item entered against the costs listed in the static variables.
+     * Checks the item entered against the shop's price table.
      *
      * @param item The item being checked for cost.
      * @return The cost of the item or 0 if the item is not found.
      */
     public int getCostOfItem(String item) {
-        if (item.equals("water")) {
-            return WATER_COST;
-        } else if (item.equals("rope")) {
-            return ROPE_COST;
-        } else if (item.equals("machete")) {
-            return MACHETE_COST;
-        } else if (item.equals("horse")) {
-            return HORSE_COST;
-        } else if (item.equals("boat")) {
-            return BOAT_COST;
-        } else if (item.equals("shovel")){
-            return SHOVEL_COST;
-        } else if (item.equals("sword")){
-            return Sword_cost;
-        } else if (item.equals("boots")) {
-            return BOOTS_COST;
-        } else {
+        Item found = Item.find(item);
+        if (found == null) {
             return 0;
         }
+        return getCostOfItem(found);
+    }
+
+    /**
+     * Checks the item against the shop's price table.
+     *
+     * @param item The item being checked for cost.
+     * @return The cost of the item.
+     */
+    public int getCostOfItem(Item item) {
+        return currentPrices().getCost(item);
     }
 
     /**
@@ -229,7 +316,30 @@ public class Shop {
      * @return The sell price of the item.
      */
     public int getBuyBackCost(String item) {
-        int cost = (int) (getCostOfItem(item) * markdown);
-        return cost;
+        Item found = Item.find(item);
+        if (found == null) {
+            return 0;
+        }
+        return currentPrices().getBuyBackCost(found);
+    }
+
+    /**
+     * @param item The item being sold.
+     * @return What the shop pays for the item.
+     */
+    public int getBuyBackCost(Item item) {
+        return currentPrices().getBuyBackCost(item);
+    }
+
+    /**
+     * A samurai with a sword gets everything for free; everyone else pays the shop's prices.
+     *
+     * @return The price table that applies to the current customer.
+     */
+    private PriceTable currentPrices() {
+        if (customer != null && customer.hasSword()) {
+            return PriceTable.forSword();
+        }
+        return prices;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+/**
+ * The SimpleAgent plays the way most people play the first time: <p>
+ * hunt for treasure and dig in every town, buy whatever gets you out of town, and brawl when you can't afford it.
+ */
+public class SimpleAgent implements Agent {
+
+    public Action nextAction(GameView view) {
+        Item neededItem = view.getNeededItem();
+
+        if (!view.isSearched()) {
+            return Action.HUNT;
+        } else if (view.hasItem(Item.SHOVEL) && !view.isGoldFound()) {
+            return Action.DIG;
+        } else if (view.isSamurai() && !view.hasItem(Item.SWORD)) {
+            return Action.buy(Item.SWORD);
+        } else if (view.hasItem(neededItem)) {
+            return Action.MOVE;
+        } else if (view.canAfford(neededItem)) {
+            return Action.buy(neededItem);
+        } else if (!view.hasItem(Item.SHOVEL) && view.canAfford(Item.SHOVEL)) {
+            return Action.buy(Item.SHOVEL);
+        } else {
+            return Action.TROUBLE;
+        }
+    }
+}
@@ -1,30 +1,92 @@
 /**
  * The Terrain class is designed to represent the zones between the towns in the Treasure Hunter game.
+ * There are only six kinds of terrain, and every town surrounded by the same kind shares the same Terrain object,
+ * along with the messages about it, which are built once.
  * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
  */
 
 public class Terrain {
+    // the kinds of terrain
+    public static final Terrain MOUNTAINS = new Terrain(0, "Mountains", "Rope");
+    public static final Terrain OCEAN = new Terrain(1, "Ocean", "Boat");
+    public static final Terrain PLAINS = new Terrain(2, "Plains", "Horse");
+    public static final Terrain DESERT = new Terrain(3, "Desert", "Water");
+    public static final Terrain JUNGLE = new Terrain(4, "Jungle", "Machete");
+    public static final Terrain MARSH = new Terrain(5, "Marsh", "Boots");
+    private static final Terrain[] TERRAINS = {MOUNTAINS, OCEAN, PLAINS, DESERT, JUNGLE, MARSH};
     // instance variables
+    private int id;
     private String terrainName;
-    private String neededItem;
+    private Item neededItem;
+    private String info;
+    private String townInfo;
+    private String crossedMessage;
+    private String lostItemMessage;
 
     /**
      * Sets the class member variables
      *
      * @param name The name of the zone.
      * @param item The item needed in order to cross the zone.
+     * @throws IllegalArgumentException If there is no item by that name.
      */
     public Terrain(String name, String item) {
+        this(-1, name, item);
+    }
+
+    /**
+     * Makes one of the kinds of terrain, for Rules that take another item to cross it.
+     *
+     * @param id The kind's id.
+     * @param name The name of the zone.
+     * @param item The item needed in order to cross the zone.
+     * @throws IllegalArgumentException If there is no item by that name.
+     */
+    Terrain(int id, String name, String item) {
+        this.id = id;
         terrainName = name;
-        neededItem = item.toLowerCase();
+        neededItem = Item.find(item.toLowerCase());
+        if (neededItem == null) {
+            throw new IllegalArgumentException("There is no item called " + item);
+        }
+        info = "You are surrounded by " + terrainName + " which needs a(n) " + neededItem.getName() + " to cross.";
+        townInfo = "This nice little town is surrounded by " + terrainName + ".";
+        crossedMessage = "You used your " + neededItem.getName() + " to cross the " + terrainName + ".";
+        lostItemMessage = crossedMessage + "\nUnfortunately, you lost your " + neededItem.getName();
+    }
+
+    /**
+     * @param id The terrain's id, as returned by getId().
+     * @return The shared Terrain of that kind.
+     */
+    public static Terrain get(int id) {
+        return TERRAINS[id];
+    }
+
+    /**
+     * @return How many kinds of terrain there are.
+     */
+    public static int count() {
+        return TERRAINS.length;
     }
 
     // accessors
+    /**
+     * @return The terrain's id from 0 to count() - 1, or -1 for a terrain that isn't one of the shared kinds.
+     */
+    public int getId() {
+        return id;
+    }
+
     public String getTerrainName() {
         return terrainName;
     }
 
     public String getNeededItem() {
+        return neededItem.getName();
+    }
+
+    public Item getItem() {
         return neededItem;
     }
 
@@ -36,16 +98,28 @@ public class Terrain {
      * @return true if the Hunter has the proper item.
      */
     public boolean canCrossTerrain(Hunter hunter) {
-        if (hunter.hasItemInKit(neededItem)) {
-            return true;
-        }
-        return false;
+        return hunter.hasItem(neededItem);
     }
 
     /**
      * @return A string representation of the terrain and item to cross it.
      */
     public String infoString() {
-        return "You are surrounded by " + terrainName + " which needs a(n) " + neededItem + " to cross.";
+        return info;
+    }
+
+    /**
+     * @return How a town surrounded by this terrain describes itself.
+     */
+    public String townInfoString() {
+        return townInfo;
+    }
+
+    /**
+     * @param itemLost true if the item broke on the way across.
+     * @return The news after crossing this terrain.
+     */
+    public String crossedMessage(boolean itemLost) {
+        return itemLost ? lostItemMessage : crossedMessage;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The Tournament plays every agent against every mode and ranks the agents. <p>
+ * Each agent plays the same numbered games with the same seed, so every agent meets the same towns
+ * and the same luck at the start, and the games are spread over a work-stealing pool by a MonteCarloRunner.
+ * Agents are ranked by how often they win over all modes, and then by how quickly they win.
+ */
+public class Tournament {
+    // constants
+    private static final int MAX_TURNS = 1000;
+    // instance variables
+    private ForkJoinPool pool;
+    private long seed;
+    private List<Entry> entries;
+
+    /**
+     * @param pool The pool that plays the games.
+     * @param seed The seed for the whole tournament.
+     */
+    public Tournament(ForkJoinPool pool, long seed) {
+        this.pool = pool;
+        this.seed = seed;
+        entries = new ArrayList<>();
+    }
+
+    /**
+     * Enters an agent.
+     *
+     * @param name What to call the agent in the rankings.
+     * @param agent The agent.
+     */
+    public void add(String name, Agent agent) {
+        entries.add(new Entry(name, agent));
+    }
+
+    /**
+     * Plays every agent in every mode.
+     *
+     * @param gamesPerMode How many games each agent plays in each mode.
+     * @return The agents, best first.
+     */
+    public List<Entry> run(int gamesPerMode) {
+        for (Entry entry : entries) {
+            MonteCarloRunner runner = new MonteCarloRunner(pool, entry.agent, MAX_TURNS, seed);
+            entry.total = new GameStats();
+            for (int i = 0; i < MonteCarloRunner.MODES.length; i++) {
+                entry.byMode[i] = runner.run(MonteCarloRunner.MODES[i], gamesPerMode);
+                entry.total.merge(entry.byMode[i]);
+            }
+        }
+        List<Entry> ranking = new ArrayList<>(entries);
+        ranking.sort(Comparator.comparingDouble((Entry entry) -> -entry.total.getWinRate())
+                .thenComparingDouble(entry -> entry.total.getAverageTurnsToWin()));
+        return ranking;
+    }
+
+    /**
+     * One agent's results.
+     */
+    public static class Entry {
+        private String name;
+        private Agent agent;
+        private GameStats[] byMode;
+        private GameStats total;
+
+        Entry(String name, Agent agent) {
+            this.name = name;
+            this.agent = agent;
+            byMode = new GameStats[MonteCarloRunner.MODES.length];
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @param mode Which mode, as an index into MonteCarloRunner.MODES.
+         * @return The agent's results in that mode.
+         */
+        public GameStats getStats(int mode) {
+            return byMode[mode];
+        }
+
+        /**
+         * @return The agent's results over every mode.
+         */
+        public GameStats getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * Runs a tournament between the agents that come with the game and prints the rankings.
+     *
+     * @param args games per agent per mode, seed, threads (all optional)
+     */
+    public static void main(String[] args) {
+        int games = 200000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length > 0) {
+            games = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            seed = Long.parseLong(args[1]);
+        }
+        if (args.length > 2) {
+            threads = Integer.parseInt(args[2]);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Tournament tournament = new Tournament(pool, seed);
+        tournament.add("simple", new SimpleAgent());
+        tournament.add("greedy shopper", new GreedyShopperAgent());
+        tournament.add("brawler", new BrawlerAgent());
+        tournament.add("digger", new DiggerAgent());
+        long startTime = System.nanoTime();
+        List<Entry> ranking = tournament.run(games);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        long played = (long) games * MonteCarloRunner.MODES.length * ranking.size();
+        System.out.printf("%d games in %.1f s on %d threads%n", played, seconds, threads);
+
+        System.out.printf("%-4s %-16s %8s %10s", "rank", "agent", "won", "turns/win");
+        for (String modeName : MonteCarloRunner.MODE_NAMES) {
+            System.out.printf(" %8s", modeName);
+        }
+        System.out.println();
+        for (int rank = 0; rank < ranking.size(); rank++) {
+            Entry entry = ranking.get(rank);
+            System.out.printf("%-4d %-16s %7.2f%% %10.1f", rank + 1, entry.getName(),
+                    entry.getTotal().getWinRate() * 100, entry.getTotal().getAverageTurnsToWin());
+            for (int i = 0; i < MonteCarloRunner.MODES.length; i++) {
+                System.out.printf(" %7.2f%%", entry.getStats(i).getWinRate() * 100);
+            }
+            System.out.println();
+        }
+        pool.shutdown();
+    }
+}
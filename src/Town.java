@@ -5,24 +5,59 @@
  */
 
 public class Town {
+    // constants
+    static final int TOUGH = 1;
+    static final int SEARCHED = 2;
+    static final int GOLD_FOUND = 4;
+    static final int GAME_LOST = 8;
+    private static final int NOT_BURIED_YET = -1;
     // instance variables
     private Hunter hunter;
     private Shop shop;
     private Terrain terrain;
-    private String printMessage;
+    // the latest news, kept as an event so it is only put into words if the menu shows it
+    private GameEvent news;
+    private int newsAmount;
+    private Object newsSubject;
     private boolean toughTown;
     private boolean gameLost;
     private boolean goldFound;
-    private String[] str;
     private boolean searched;
+    private EventSink events;
+    // false for a headless game, which records nothing in GameMetrics
+    private boolean metered;
+    private GameRandom random;
+    private Rules rules;
+    // a town on a World map has its treasure and gold settled when it is made; other towns roll them when found
+    private Treasure hiddenTreasure;
+    private int buriedGold;
 
     /**
      * The Town Constructor takes in a shop and the surrounding terrain, but leaves the hunter as null until one arrives.
      *
      * @param shop The town's shoppe.
      * @param toughness The surrounding terrain.
+     * @param events Where the townsfolk shout things that can't wait for the latest news.
+     * @param random The game's source of random outcomes.
      */
-    public Town(Shop shop, double toughness) {
+    public Town(Shop shop, double toughness, EventSink events, GameRandom random) {
+        this(shop, Rules.STANDARD, toughness, events, random);
+    }
+
+    /**
+     * Makes a town that plays by other rules than the standard ones.
+     *
+     * @param shop The town's shoppe.
+     * @param rules The odds of trouble, digging and broken items.
+     * @param toughness How likely the town is to be tough.
+     * @param events Where the townsfolk shout things that can't wait for the latest news.
+     * @param random The game's source of random outcomes.
+     */
+    public Town(Shop shop, Rules rules, double toughness, EventSink events, GameRandom random) {
+        this.events = events;
+        metered = events.isMetered();
+        this.rules = rules;
+        this.random = random;
         searched = false;
         this.shop = shop;
         this.terrain = getNewTerrain();
@@ -30,35 +65,174 @@ public class Town {
         // gets called from a client class
         goldFound = false;
         hunter = null;
-        printMessage = "";
+        news = null;
         // higher toughness = more likely to be a tough town
-        toughTown = (Math.random() < toughness);
-        str = new String[4];
-        str[0] = "crown";
-        str[1] = "trophy";
-        str[2] = "dust";
-        str[3] = "gem";
+        toughTown = (random.nextDouble() < toughness);
+        buriedGold = NOT_BURIED_YET;
+    }
+
+    /**
+     * Makes a town for a place on a World map: everything about the town, down to the treasure hidden in it and
+     * the gold under it, is rolled now from the place's own generator, so the same place always makes the same town.
+     *
+     * @param shop The town's shoppe.
+     * @param rules The odds of trouble, digging and broken items.
+     * @param toughness How likely the town is to be tough.
+     * @param events Where the townsfolk shout things that can't wait for the latest news.
+     * @param random The game's source of random outcomes, for brawls and broken items.
+     * @param placeRandom The generator for this place on the map.
+     */
+    Town(Shop shop, Rules rules, double toughness, EventSink events, GameRandom random, GameRandom placeRandom) {
+        this(shop, rules, toughness, events, placeRandom);
+        hiddenTreasure = treasureSelector();
+        // the same two rolls, in the same order, as digging in any other town
+        double rand = placeRandom.nextDouble();
+        int digGold = (int) (placeRandom.nextDouble() * rules.getDigGold()) + 1;
+        if (rand < rules.getDigChance()) {
+            buriedGold = digGold;
+        } else {
+            buriedGold = 0;
+        }
+        this.random = random;
+    }
+
+    /**
+     * Turns this town into the next town down the road, so a game can keep using the same Town object:
+     * the terrain and toughness are rolled again (in the same order as the constructor) and nothing has been
+     * searched or dug yet. The hunter has to arrive again.
+     *
+     * @param toughness How likely the town is to be tough.
+     */
+    public void reset(double toughness) {
+        searched = false;
+        terrain = getNewTerrain();
+        goldFound = false;
+        gameLost = false;
+        news = null;
+        toughTown = (random.nextDouble() < toughness);
+        hiddenTreasure = null;
+        buriedGold = NOT_BURIED_YET;
+    }
+
+    /**
+     * Rebuilds a saved town. Nothing random happens; the town is exactly as it was saved.
+     *
+     * @param shop The town's shoppe.
+     * @param terrain The surrounding terrain.
+     * @param flags The town's flags, as returned by getFlags().
+     * @param rules The odds of trouble, digging and broken items.
+     * @param events Where the townsfolk shout things that can't wait for the latest news.
+     * @param random The game's source of random outcomes.
+     */
+    Town(Shop shop, Terrain terrain, int flags, Rules rules, EventSink events, GameRandom random) {
+        this.events = events;
+        metered = events.isMetered();
+        this.rules = rules;
+        this.random = random;
+        this.shop = shop;
+        this.terrain = terrain;
+        hunter = null;
+        news = null;
+        toughTown = (flags & TOUGH) != 0;
+        searched = (flags & SEARCHED) != 0;
+        goldFound = (flags & GOLD_FOUND) != 0;
+        gameLost = (flags & GAME_LOST) != 0;
+        buriedGold = NOT_BURIED_YET;
+    }
+
+    /**
+     * @return The town's flags packed into bits, for saving.
+     */
+    int getFlags() {
+        int flags = 0;
+        if (toughTown) {
+            flags |= TOUGH;
+        }
+        if (searched) {
+            flags |= SEARCHED;
+        }
+        if (goldFound) {
+            flags |= GOLD_FOUND;
+        }
+        if (gameLost) {
+            flags |= GAME_LOST;
+        }
+        return flags;
     }
 
-    public String treasureSelector() {
-        int rand = (int) (Math.random() *4);
-        return str[rand];
+    public Treasure treasureSelector() {
+        return Treasure.get(rules.drawTreasure(random.nextDouble()));
     }
 
     public void lookForTreasure() {
+        long start = startTimer();
         if (!searched) {
-            hunter.treasureCollected(treasureSelector());
+            Treasure treasure = hiddenTreasure;
+            if (treasure == null) {
+                treasure = treasureSelector();
+            }
+            if (hunter.treasureCollected(treasure)) {
+                if (metered) {
+                    GameMetrics.treasureFound(treasure);
+                }
+                events.event(GameEvent.TREASURE_FOUND, hunter, 0, treasure);
+            }
             searched = true;
         } else {
-            System.out.println("You cant hunt anymore!");
+            events.event(GameEvent.CANT_HUNT, hunter, 0, null);
         }
+        stopTimer(GameMetrics.HUNT, start);
     }
 
     public Terrain getTerrain() {
         return terrain;
     }
+
+    public Shop getShop() {
+        return shop;
+    }
+
+    public boolean isToughTown() {
+        return toughTown;
+    }
+
+    public boolean isSearched() {
+        return searched;
+    }
+
+    public boolean isGoldFound() {
+        return goldFound;
+    }
+    /**
+     * @return The latest news, put into words.
+     */
     public String getLatestNews() {
-        return printMessage;
+        if (news == null) {
+            return "";
+        }
+        return news.text(hunter, newsAmount, newsSubject);
+    }
+
+    /**
+     * @return The latest news as an event, or null if there isn't any.
+     */
+    public GameEvent getNews() {
+        return news;
+    }
+
+    /**
+     * Tells the latest news straight away instead of waiting for the menu to show it.
+     */
+    public void announceNews() {
+        if (news != null) {
+            events.event(news, hunter, newsAmount, newsSubject);
+        }
+    }
+
+    private void setNews(GameEvent event, int amount, Object subject) {
+        news = event;
+        newsAmount = amount;
+        newsSubject = subject;
     }
 
 
@@ -69,11 +243,10 @@ public class Town {
      */
     public void hunterArrives(Hunter hunter) {
         this.hunter = hunter;
-        printMessage = "Welcome to town, " + hunter.getHunterName() + ".";
         if (toughTown) {
-            printMessage += "\n" + Colors.CYAN + "It's pretty rough around here, so watch yourself." + Colors.RESET;
+            setNews(GameEvent.TOUGH_WELCOME, 0, null);
         } else {
-            printMessage += "\nWe're just a sleepy little town with mild mannered folk.";
+            setNews(GameEvent.SLEEPY_WELCOME, 0, null);
         }
     }
 
@@ -83,18 +256,27 @@ public class Town {
      * @return true if the Hunter was able to leave town.
      */
     public boolean leaveTown() {
+        long start = startTimer();
+        boolean left = crossTerrain();
+        stopTimer(GameMetrics.LEAVE, start);
+        return left;
+    }
+
+    private boolean crossTerrain() {
         boolean canLeaveTown = terrain.canCrossTerrain(hunter);
         if (canLeaveTown) {
-            String item = terrain.getNeededItem();
-            printMessage = "You used your " + item + " to cross the " + terrain.getTerrainName() + ".";
-            if (checkItemBreak()) {
-                hunter.removeItemFromKit(item);
-                printMessage += "\nUnfortunately, you lost your " + item;
+            boolean itemLost = checkItemBreak();
+            if (itemLost) {
+                hunter.removeItemFromKit(terrain.getItem());
+            }
+            if (itemLost) {
+                setNews(GameEvent.CROSSED_ITEM_LOST, 0, terrain);
+            } else {
+                setNews(GameEvent.CROSSED, 0, terrain);
             }
             return true;
         }
-
-        printMessage = "You can't leave town, " + hunter.getHunterName() + ". You don't have a " + terrain.getNeededItem() + ".";
+        setNews(GameEvent.STUCK, 0, terrain);
         return false;
     }
 
@@ -104,7 +286,35 @@ public class Town {
      * @param choice If the user wants to buy or sell items at the shop.
      */
     public void enterShop(String choice) {
-        printMessage = shop.enter(hunter, choice);
+        shop.enter(hunter, choice);
+        setNews(GameEvent.LEFT_SHOP, 0, null);
+    }
+
+    /**
+     * Buys an item at the shop without going through the shop's questions.
+     *
+     * @param item The item to buy.
+     */
+    public void buyFromShop(String item) {
+        shop.buy(hunter, item);
+        setNews(GameEvent.LEFT_SHOP, 0, null);
+    }
+
+    /**
+     * Sells an item at the shop without going through the shop's questions.
+     *
+     * @param item The item to sell.
+     */
+    public void sellToShop(String item) {
+        shop.sell(hunter, item);
+        setNews(GameEvent.LEFT_SHOP, 0, null);
+    }
+
+    /**
+     * Leaves the shop without buying or selling anything.
+     */
+    public void leaveShop() {
+        setNews(GameEvent.LEFT_SHOP, 0, null);
     }
 
     /**
@@ -113,39 +323,41 @@ public class Town {
      * The tougher the town, the easier it is to find a fight, and the harder it is to win one.
      */
     public void lookForTrouble() {
-        double noTroubleChance;
-        if (toughTown) {
-            noTroubleChance = 0.66;
-        } else {
-            noTroubleChance = 0.33;
-        }
+        long start = startTimer();
+        double noTroubleChance = rules.getTroubleChance(toughTown);
         if (hunter.isSamurai() && hunter.hasSword()) {
-            if (Math.random() > noTroubleChance) {
-                printMessage = "You couldn't find any trouble";
+            if (random.nextDouble() > noTroubleChance) {
+                setNews(GameEvent.NO_TROUBLE, 0, null);
             } else {
-                printMessage = Colors.RED + "You want trouble, stranger!  You got it!\nOof! Umph! Ow!" + Colors.RESET + "\n";
-                int goldDiff = (int) (Math.random() * 10) + 1;
-                if (Math.random() > noTroubleChance) {
-                    printMessage += "Okay, stranger! You proved yer mettle. Here, take my gold.";
-                    printMessage += "You have slain your enemy, mighty samurai!!";
-                    printMessage += "\nYou won the brawl and receive " + Colors.YELLOW + goldDiff + Colors.RESET + " gold.";
+                setNews(GameEvent.SAMURAI_BRAWL, 0, null);
+                int goldDiff = (int) (random.nextDouble() * rules.getBrawlGold()) + 1;
+                if (random.nextDouble() > noTroubleChance) {
+                    setNews(GameEvent.SAMURAI_BRAWL_WON, goldDiff, null);
                     hunter.changeGold(goldDiff);
+                    if (metered) {
+                        GameMetrics.brawlWon();
+                    }
                 }
             }
         } else {
-            if (Math.random() > noTroubleChance) {
-                printMessage = "You couldn't find any trouble";
+            if (random.nextDouble() > noTroubleChance) {
+                setNews(GameEvent.NO_TROUBLE, 0, null);
             } else {
-                printMessage = Colors.RED + "You want trouble, stranger!  You got it!\nOof! Umph! Ow!" + Colors.RESET + "\n";
-                int goldDiff = (int) (Math.random() * 10) + 1;
-                if (Math.random() > noTroubleChance) {
-                    System.out.println("Okay, stranger! You proved yer mettle. Here, take my gold.");
-                    printMessage += "\nYou won the brawl and receive " + Colors.YELLOW + goldDiff + Colors.RESET + " gold.";
+                int goldDiff = (int) (random.nextDouble() * rules.getBrawlGold()) + 1;
+                if (random.nextDouble() > noTroubleChance) {
+                    events.event(GameEvent.STRANGER_PAYS, hunter, goldDiff, null);
+                    setNews(GameEvent.BRAWL_WON, goldDiff, null);
                     hunter.changeGold(goldDiff);
+                    if (metered) {
+                        GameMetrics.brawlWon();
+                    }
                 } else {
-                    System.out.println(Colors.RED + "That'll teach you to go lookin' fer trouble in MY town! Now pay up!" + Colors.RESET);
-                    printMessage += "\nYou lost the brawl and pay " + Colors.YELLOW + goldDiff + Colors.RESET + " gold.";
+                    events.event(GameEvent.STRANGER_COLLECTS, hunter, goldDiff, null);
+                    setNews(GameEvent.BRAWL_LOST, goldDiff, null);
                     hunter.changeGold(-goldDiff);
+                    if (metered) {
+                        GameMetrics.brawlLost();
+                    }
                     if (hunter.getGold() < 0) {
                         gameLost = true;
                     } else {
@@ -154,9 +366,10 @@ public class Town {
                 }
             }
         }
+        stopTimer(GameMetrics.TROUBLE, start);
     }
     public String infoString() {
-        return "This nice little town is surrounded by " + terrain.getTerrainName() + ".";
+        return terrain.townInfoString();
     }
     public boolean isGameLost() {
         return gameLost;
@@ -164,23 +377,10 @@ public class Town {
     /**
      * Determines the surrounding terrain for a town, and the item needed in order to cross that terrain.
      *
-     * @return A Terrain object.
+     * @return One of the rules' Terrain objects.
      */
     private Terrain getNewTerrain() {
-        double rnd = Math.random()*5+1;
-        if (rnd < 1) {
-            return new Terrain("Mountains", "Rope");
-        } else if (rnd < 2) {
-            return new Terrain("Ocean", "Boat");
-        } else if (rnd < 3) {
-            return new Terrain("Plains", "Horse");
-        } else if (rnd < 4) {
-            return new Terrain("Desert", "Water");
-        } else if(rnd<5) {
-            return new Terrain("Jungle", "Machete");
-        } else {
-            return new Terrain("Marsh", "Boots");
-        }
+        return rules.drawTerrain(random.nextDouble());
     }
 
     /**
@@ -188,28 +388,75 @@ public class Town {
      *
      * @return true if the item broke.
      */
-    public static boolean checkItemBreak() {
-        double rand = Math.random();
-        return (rand < 0.5);
+    public boolean checkItemBreak() {
+        double rand = random.nextDouble();
+        if (rand < rules.getBreakChance()) {
+            if (metered) {
+                GameMetrics.itemBroken();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Digs for gold, if the hunter has a shovel, and says what came of it.
+     *
+     * @return What came of it.
+     */
+    public GameEvent Dig() {
+        long start = startTimer();
+        GameEvent result = digForGold();
+        stopTimer(GameMetrics.DIG, start);
+        return result;
+    }
+
+    /**
+     * @return What System.nanoTime() says as an action starts, or 0 if the game isn't metered.
+     */
+    private long startTimer() {
+        return metered ? System.nanoTime() : 0;
+    }
+
+    private void stopTimer(int action, long start) {
+        if (metered) {
+            GameMetrics.time(action, start);
+        }
     }
 
-    public String Dig() {
-        if (hunter.hasItemInKit("shovel") && !goldFound) {
-            double rand = Math.random();
-            int digGold= (int) (Math.random() * 20) + 1;
-            if (rand<0.5) {
+    private GameEvent digForGold() {
+        if (hunter.hasItem(Item.SHOVEL) && !goldFound) {
+            int digGold = buriedGold;
+            if (digGold == NOT_BURIED_YET) {
+                double rand = random.nextDouble();
+                digGold = (int) (random.nextDouble() * rules.getDigGold()) + 1;
+                if (rand >= rules.getDigChance()) {
+                    digGold = 0;
+                }
+            }
+            if (digGold > 0) {
                 goldFound = true;
-                //digGold = (int) (Math.random()*20)+1;
                 hunter.changeGold(digGold);
-                return "You dug up " + digGold + "gold!";
+                if (metered) {
+                    GameMetrics.dug(digGold);
+                }
+                return tell(GameEvent.GOLD_DUG, digGold);
             } else {
                 goldFound = true;
-                return "You dug but only found dirt!";
+                if (metered) {
+                    GameMetrics.dug(0);
+                }
+                return tell(GameEvent.DUG_DIRT, 0);
             }
-        } else if (!hunter.hasItemInKit("shovel")){
-            return "You cant dig for gold without a shovel!";
+        } else if (!hunter.hasItem(Item.SHOVEL)){
+            return tell(GameEvent.NO_SHOVEL, 0);
         } else {
-            return "You already have gold in this town stop being greedy!";
+            return tell(GameEvent.ALREADY_DUG, 0);
         }
     }
+
+    private GameEvent tell(GameEvent event, int amount) {
+        events.event(event, hunter, amount, null);
+        return event;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+/**
+ * The Treasure enum lists the treasures that can be found while hunting in town. <p>
+ * Each treasure has its own bit, so everything a hunter has found fits in one int,
+ * and the hunter has won once every bit of WIN_MASK is set.
+ */
+public enum Treasure {
+    CROWN("crown"),
+    TROPHY("trophy"),
+    DUST("dust"),
+    GEM("gem");
+
+    // constants
+    public static final int WIN_MASK = CROWN.getBit() | TROPHY.getBit() | GEM.getBit();
+    // static variables
+    private static final Treasure[] TREASURES = values();
+    // instance variables
+    private final String name;
+    private final int bit;
+
+    Treasure(String name) {
+        this.name = name;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * @param name The treasure's name.
+     * @return The treasure, or null if there is no such treasure.
+     */
+    public static Treasure find(String name) {
+        for (Treasure treasure : TREASURES) {
+            if (treasure.name.equals(name)) {
+                return treasure;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param ordinal The treasure's position in the list.
+     * @return The treasure at that position.
+     */
+    public static Treasure get(int ordinal) {
+        return TREASURES[ordinal];
+    }
+
+    /**
+     * @return How many treasures there are.
+     */
+    public static int count() {
+        return TREASURES.length;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBit() {
+        return bit;
+    }
+}
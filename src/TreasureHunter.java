@@ -1,4 +1,8 @@
-
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 /**
@@ -9,10 +13,31 @@ import java.util.Scanner;
  * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
  */
 public class TreasureHunter {
-    // static variables
-    private static final Scanner SCANNER = new Scanner(System.in);
+    // constants
+    // the menu never changes, so it is encoded once (it is plain ASCII, which every console charset agrees on)
+    private static final String NEW_LINE = System.lineSeparator();
+    private static final byte[] DIVIDER = ("***" + NEW_LINE).getBytes(StandardCharsets.US_ASCII);
+    // headless games print nowhere; each thread shares one stream so a game doesn't carry its own buffers
+    private static final ThreadLocal<PrintStream> NOWHERE =
+            ThreadLocal.withInitial(() -> new PrintStream(OutputStream.nullOutputStream()));
+    private static final byte[] MENU = ("(B)uy something at the shop." + NEW_LINE
+            + "(S)ell something at the shop." + NEW_LINE
+            + "(E)xplore surrounding terrain." + NEW_LINE
+            + "(M)ove on to a different town." + NEW_LINE
+            + "(L)ook for trouble!" + NEW_LINE
+            + "(D)ig for gold!" + NEW_LINE
+            + "(H)unt for treasure!" + NEW_LINE
+            + "Give up the hunt and e(X)it." + NEW_LINE
+            + NEW_LINE
+            + "What's your next move? ").getBytes(StandardCharsets.US_ASCII);
     // instance variables
+    private Scanner scanner;
+    private PrintStream out;
+    private EventSink events;
+    private GameRandom random;
+    private Rules rules;
     private Town currentTown;
+    private Shop shop;
     private Hunter hunter;
     private boolean hardMode;
     private boolean testMode;
@@ -20,11 +45,53 @@ public class TreasureHunter {
     private boolean normalMode;
     private boolean itemCanBreak;
     private boolean samuraiMode;
+    private int turns;
+    private boolean finished;
+    private JournalSession journal;
+    private Leaderboard leaderboard;
+    private long playerId;
+    private ActionBus bus;
+    private long busGameId;
+    // the turn being played, for the bus
+    private char turnAction;
+    private int goldBeforeTurn;
+    // a game on a World map; cachedTowns is 0 for a game of towns that each only last until the hunter moves on
+    private World world;
+    private long worldSeed;
+    private int cachedTowns;
+    private GameView view;
     /**
-     * Constructs the Treasure Hunter game.
+     * Constructs the Treasure Hunter game, played on the console.
      */
     public TreasureHunter() {
-        // these will be initialized in the play method
+        this(false);
+    }
+
+    /**
+     * Constructs the Treasure Hunter game, played on the console, drawing each turn as one frame.
+     *
+     * @param diffMode true to only redraw the lines of the screen that changed since the last turn.
+     */
+    public TreasureHunter(boolean diffMode) {
+        this(new Scanner(System.in), new PrintStream(new Screen(new FileOutputStream(FileDescriptor.out), diffMode)),
+                GameRandom.unseeded());
+    }
+
+    /**
+     * Constructs the Treasure Hunter game that reads the player's input from the scanner
+     * and prints everything it displays to the given stream.
+     *
+     * @param scanner Where the player's input comes from (null for a headless game).
+     * @param out Where the game is displayed.
+     * @param random The source of every random outcome in this game.
+     */
+    public TreasureHunter(Scanner scanner, PrintStream out, GameRandom random) {
+        this.scanner = scanner;
+        this.out = out;
+        events = EventSink.printingTo(out);
+        this.random = random;
+        rules = Rules.STANDARD;
+        // these will be initialized in the play or start method
         currentTown = null;
         hunter = null;
         hardMode = false;
@@ -33,10 +100,34 @@ public class TreasureHunter {
         normalMode = false;
         itemCanBreak = true;
         samuraiMode = false;
+        turns = 0;
+    }
+
+    /**
+     * Creates a headless game: nothing is read from the console and everything it would display is discarded.<p>
+     * The game is driven with start() and the action methods instead of the menu.
+     *
+     * @param random The source of every random outcome in this game.
+     * @return A game that is ready to be started.
+     */
+    public static TreasureHunter headless(GameRandom random) {
+        TreasureHunter game = new TreasureHunter(null, NOWHERE.get(), random);
+        game.events = EventSink.IGNORE;
+        return game;
+    }
+
+    /**
+     * Creates a headless game that plays out the same way every time for the same seed.
+     *
+     * @param seed The seed for the game's random outcomes.
+     * @return A game that is ready to be started.
+     */
+    public static TreasureHunter headless(long seed) {
+        return headless(new GameRandom(seed));
     }
 
     /**
-     * Starts the game; this is the only public method
+     * Starts the interactive game, reading every choice from the scanner.
      */
     public void play() {
         welcomePlayer();
@@ -45,31 +136,45 @@ public class TreasureHunter {
     }
 
     /**
-     * Creates a hunter object at the beginning of the game and populates the class member variable with it.
+     * Carries on an interactive game that was parked or saved, from the menu of the town the hunter is in.
      */
+    public void resume() {
+        showMenu();
+    }
 
-    private boolean itemBreakCheck() {
-        if (!itemCanBreak) {
-            return false;
-        } else {
-            return Town.checkItemBreak();
-        }
+    /**
+     * Starts the game without asking the player anything; the same as answering the welcome questions.
+     *
+     * @param name The hunter's name.
+     * @param mode The mode letter: e, n, h, t or s.
+     */
+    public void start(String name, String mode) {
+        createHunter(name.toLowerCase(), mode.toLowerCase());
+        enterTown();
     }
 
     private void welcomePlayer() {
-        System.out.println("Welcome to TREASURE HUNTER!");
-        System.out.println("Going hunting for the big treasure, eh?");
-        System.out.print("What's your name, Hunter? ");
-        String name = SCANNER.nextLine().toLowerCase();
-
-        // set hunter instance variable
-        hunter = new Hunter(samuraiMode, name, 20);
+        out.println("Welcome to TREASURE HUNTER!");
+        out.println("Going hunting for the big treasure, eh?");
+        out.print("What's your name, Hunter? ");
+        String name = readLine().toLowerCase();
+        out.print("Easy mode (e), Normal Mode (n), Hard Mode (h), Test Mode (t)? ");
+        String hard = readLine().toLowerCase();
+        createHunter(name, hard);
+    }
 
-        System.out.print("Easy mode (e), Normal Mode (n), Hard Mode (h), Test Mode (t)? ");
-        String hard = SCANNER.nextLine().toLowerCase();
+    /**
+     * Creates the hunter for the chosen mode and sets the mode flags.
+     *
+     * @param name The hunter's name.
+     * @param hard The mode letter the player chose.
+     */
+    private void createHunter(String name, String hard) {
+        if (journal != null) {
+            journal.start(hard, name);
+        }
         if (hard.equals("e")) {
             easyMode = true;
-            hunter.changeGold(20);
             itemCanBreak = false;
         } else if (hard.equals("n")) {
             normalMode = true;
@@ -77,54 +182,35 @@ public class TreasureHunter {
             hardMode = true;
         } else if (hard.equals("s")){
             samuraiMode = true;
-            hunter = new Hunter(samuraiMode, name, 20);
         } else if (hard.equals("t")) {
             testMode = true;
         }
 
-        if (easyMode) {
-            hunter.changeGold(20);
-        }
-        if (testMode) {
-            hunter.changeGold(80);
-        }
+        // set hunter instance variable
+        hunter = new Hunter(samuraiMode, name, getStartGold());
     }
 
     /**
      * Creates a new town and adds the Hunter to it.
      */
     private void enterTown() {
-        double markdown = 0;
-        double toughness = 0;
-        if (hardMode) {
-            // in hard mode, you get less money back when you sell items
-            markdown = 0.25;
-            // and the town is "tougher"
-            toughness = 0.75;
-        } else if (testMode) {
+        if (testMode) {
             hunter.testMode();
         }
-         else if (easyMode) {
-            markdown =1;
-            toughness = 0.25;
-        }
-         else if (normalMode) {
-            markdown =0.5;
-            toughness = 0.50;
-        }
-        // note that we don't need to access the Shop object
-        // outside of this method, so it isn't necessary to store it as an instance
-        // variable; we can leave it as a local variable
-        Shop shop;
-        if (samuraiMode) {
-            shop = new Shop(samuraiMode, markdown);
+        // creating the first Town -- which we need to store as an instance
+        // variable in this class, since we need to access the Town
+        // object in other methods of this class; after that the same
+        // Town (and its Shop) is turned into each new town in turn
+        if (cachedTowns > 0) {
+            if (world == null) {
+                world = new World(worldSeed, cachedTowns, getShop(), rules, getToughness(), events, random);
+            }
+            currentTown = world.here();
+        } else if (currentTown == null) {
+            currentTown = new Town(getShop(), rules, getToughness(), events, random);
         } else {
-            shop = new Shop(markdown);
+            currentTown.reset(getToughness());
         }
-        // creating the new Town -- which we need to store as an instance
-        // variable in this class, since we need to access the Town
-        // object in other methods of this class
-        currentTown = new Town(shop, toughness);
 
         // calling the hunterArrives method, which takes the Hunter
         // as a parameter; note this also could have been done in the
@@ -133,6 +219,85 @@ public class TreasureHunter {
         currentTown.hunterArrives(hunter);
     }
 
+    /**
+     * @return The rules' number for this game's mode, or -1 if the player typed a mode there isn't.
+     */
+    private int getRulesMode() {
+        if (hardMode) {
+            return Rules.HARD;
+        } else if (testMode) {
+            return Rules.TEST;
+        } else if (easyMode) {
+            return Rules.EASY;
+        } else if (normalMode) {
+            return Rules.NORMAL;
+        } else if (samuraiMode) {
+            return Rules.SAMURAI;
+        }
+        return -1;
+    }
+
+    /**
+     * @return The gold the hunter starts with in this game's mode.
+     */
+    private int getStartGold() {
+        int mode = getRulesMode();
+        if (mode < 0) {
+            return 20;
+        }
+        return rules.getStartGold(mode);
+    }
+
+    /**
+     * @return Percentage of markdown for selling items in this game's mode.
+     */
+    double getMarkdown() {
+        int mode = getRulesMode();
+        if (mode < 0) {
+            return 0;
+        }
+        // in hard mode, you get less money back when you sell items
+        return rules.getMarkdown(mode);
+    }
+
+    /**
+     * @return How likely a town is to be tough in this game's mode.
+     */
+    double getToughness() {
+        int mode = getRulesMode();
+        if (mode < 0) {
+            return 0;
+        }
+        // and in hard mode the town is "tougher"
+        return rules.getToughness(mode);
+    }
+
+    /**
+     * @return What the shop charges and pays for every item in this game's mode.
+     */
+    PriceTable getPrices() {
+        return rules.getPrices(getMarkdown());
+    }
+
+    /**
+     * Every town in a game has the same kind of shop, so the game only ever needs one.
+     *
+     * @return The game's shop.
+     */
+    private Shop getShop() {
+        if (shop == null) {
+            if (samuraiMode) {
+                shop = new Shop(samuraiMode, getPrices(), scanner, out, events);
+            } else {
+                shop = new Shop(getPrices(), scanner, out, events);
+            }
+            if (journal != null) {
+                shop.journalTo(journal);
+            }
+        }
+        return shop;
+    }
+
     /**
      * Displays the menu and receives the choice from the user.<p>
      * The choice is sent to the processChoice() method for parsing.<p>
@@ -141,32 +306,34 @@ public class TreasureHunter {
     private void showMenu() {
         String choice = "";
         while (!choice.equals("x") && !currentTown.isGameLost()) {
-            System.out.println();
-            System.out.println(currentTown.getLatestNews());
-            System.out.println("***");
-            System.out.println(hunter.infoString());
-            System.out.println(currentTown.infoString());
-            System.out.println("(B)uy something at the shop.");
-            System.out.println("(S)ell something at the shop.");
-            System.out.println("(E)xplore surrounding terrain.");
-            System.out.println("(M)ove on to a different town.");
-            System.out.println("(L)ook for trouble!");
-            System.out.println("(D)ig for gold!");
-            System.out.println("(H)unt for treasure!");
-            System.out.println("Give up the hunt and e(X)it.");
-            System.out.println();
-            System.out.print("What's your next move? ");
-            choice = SCANNER.nextLine().toLowerCase();
+            out.println();
+            out.println(currentTown.getLatestNews());
+            out.write(DIVIDER, 0, DIVIDER.length);
+            out.println(hunter.infoString());
+            out.println(currentTown.infoString());
+            out.write(MENU, 0, MENU.length);
+            choice = readLine().toLowerCase();
             processChoice(choice);
             if (hunter.winGame()) {
                 break;
             }
         }
         if (hunter.winGame()) {
-            System.out.println("You win congratulations!!");
+            out.println("You win congratulations!!");
         } else if (currentTown.isGameLost()) {
-            System.out.println("Games Over you lose!");
+            out.println("Games Over you lose!");
         }
+        out.flush();
+    }
+
+    /**
+     * Shows everything printed so far and waits for the player to type a line.
+     *
+     * @return The line the player typed.
+     */
+    private String readLine() {
+        out.flush();
+        return scanner.nextLine();
     }
 
     /**
@@ -175,27 +342,389 @@ public class TreasureHunter {
      */
     private void processChoice(String choice) {
         if (choice.equals("b") || choice.equals("s")) {
+            // the shop's questions wait on the player, so the shop only times the buying and selling itself
+            takeTurn(choice);
             currentTown.enterShop(choice);
-        } else if (choice.equals("e")) {
-            System.out.println(currentTown.getTerrain().infoString());
+            endTurn();
+            return;
+        }
+        // the way to go waits on the player too, so it is asked before the clock starts
+        String direction = null;
+        if (choice.equals("m") && world != null) {
+            out.print("Which way? (N)orth, (S)outh, (E)ast or (W)est? ");
+            direction = readLine().toLowerCase();
+            if (!World.isDirection(direction)) {
+                // the same as a choice that isn't on the menu: no turn is spent, so there's nothing to record
+                out.println("Yikes! That's an invalid option! Try again.");
+                return;
+            }
+        }
+        boolean metered = events.isMetered();
+        long start = metered ? System.nanoTime() : 0;
+        if (choice.equals("e")) {
+            explore();
         } else if (choice.equals("m")) {
-            if (currentTown.leaveTown()) {
-                // This town is going away so print its news ahead of time.
-                System.out.println(currentTown.getLatestNews());
-                enterTown();
+            if (direction != null) {
+                move(direction);
+            } else {
+                move();
             }
         } else if (choice.equals("l")) {
-            currentTown.lookForTrouble();
+            lookForTrouble();
         } else if (choice.equals("d")) {
-            System.out.println(currentTown.Dig());
+            dig();
         } else if (choice.equals("x")) {
-            System.out.println("Fare thee well, " + hunter.getHunterName() + "!");
+            record(choice);
+            out.println("Fare thee well, " + hunter.getHunterName() + "!");
         } else if (choice.equals("h")) {
-            currentTown.lookForTreasure();
+            hunt();
         }else {
-            System.out.println("Yikes! That's an invalid option! Try again.");
+            record(choice);
+            out.println("Yikes! That's an invalid option! Try again.");
+        }
+        if (metered) {
+            GameMetrics.time(GameMetrics.CHOICE, start);
+        }
+    }
+
+    // Actions -- each one is a single turn, the same as choosing it from the menu
+
+    /**
+     * Buys an item at the shop without the shop's questions; the same as answering "y".
+     *
+     * @param item The item to buy.
+     */
+    public void buy(String item) {
+        takeTurn("b");
+        currentTown.buyFromShop(item.toLowerCase());
+        endTurn();
+    }
+
+    /**
+     * Sells an item at the shop without the shop's questions; the same as answering "y".
+     *
+     * @param item The item to sell.
+     */
+    public void sell(String item) {
+        takeTurn("s");
+        currentTown.sellToShop(item.toLowerCase());
+        endTurn();
+    }
+
+    /**
+     * Visits the shop without the shop's questions and leaves without buying or selling anything; the same as
+     * naming nothing, or answering "n". It still takes a turn.
+     *
+     * @param choice "b" to go in buying, "s" to go in selling.
+     */
+    public void leaveShop(String choice) {
+        takeTurn(choice);
+        currentTown.leaveShop();
+        endTurn();
+    }
+
+    public void explore() {
+        takeTurn("e");
+        events.event(GameEvent.EXPLORED, hunter, 0, currentTown.getTerrain());
+        endTurn();
+    }
+
+    /**
+     * Moves on to a new town if the hunter can cross the terrain.
+     *
+     * @return true if the hunter arrived in a new town.
+     */
+    public boolean move() {
+        return move("e");
+    }
+
+    /**
+     * Moves on to a new town if the hunter can cross the terrain.
+     *
+     * @param direction On a World map, which neighbouring town to go to: n, s, e or w. Ignored otherwise.
+     * @return true if the hunter arrived in a new town.
+     * @throws IllegalArgumentException If the game is on a World map and the direction isn't one of those.
+     */
+    public boolean move(String direction) {
+        if (world != null && !World.isDirection(direction)) {
+            throw new IllegalArgumentException("There is no direction " + direction);
         }
+        takeTurn("m");
+        boolean left = currentTown.leaveTown();
+        if (left) {
+            // This town is going away so tell its news ahead of time.
+            currentTown.announceNews();
+            if (world != null) {
+                world.go(direction);
+            }
+            enterTown();
+        }
+        endTurn();
+        return left;
+    }
+
+    public void lookForTrouble() {
+        takeTurn("l");
+        currentTown.lookForTrouble();
+        checkFinished();
+        endTurn();
+    }
+
+    public void dig() {
+        takeTurn("d");
+        currentTown.Dig();
+        endTurn();
+    }
+
+    public void hunt() {
+        takeTurn("h");
+        currentTown.lookForTreasure();
+        checkFinished();
+        endTurn();
+    }
+
+    /**
+     * Lets an agent pick this turn instead of reading it from the player.
+     *
+     * @param agent The agent playing the game.
+     */
+    public void playTurn(Agent agent) {
+        agent.nextAction(view()).apply(this);
+    }
+
+    /**
+     * Lets an agent play the rest of the game.
+     *
+     * @param agent The agent playing the game.
+     * @param maxTurns The game is stopped, neither won nor lost, once this many turns have been played.
+     */
+    public void play(Agent agent, int maxTurns) {
+        while (!isOver() && turns < maxTurns) {
+            playTurn(agent);
+        }
+    }
+
+    /**
+     * @return A read-only look at this game, as an agent sees it.
+     */
+    public GameView view() {
+        if (view == null) {
+            view = new GameView(this);
+        }
+        return view;
     }
+
+    /**
+     * Counts a turn and records the choice in the journal, if there is one.
+     *
+     * @param choice The menu letter of the action.
+     */
+    private void takeTurn(String choice) {
+        turns++;
+        record(choice);
+        turnAction = choice.charAt(0);
+        goldBeforeTurn = hunter.getGold();
+    }
+
+    /**
+     * Counts the game in the metrics the first time it is won or lost; only brawls lose games and only hunts win them.
+     */
+    private void checkFinished() {
+        if (!finished && isOver()) {
+            finished = true;
+            if (events.isMetered()) {
+                GameMetrics.gameOver(getModeFlags(), isWon());
+            }
+        }
+    }
+
+    private void record(String choice) {
+        if (journal != null) {
+            journal.choice(choice);
+        }
+    }
+
+    /**
+     * Tells whoever is watching how the turn went: the leaderboard and the action bus, if there are any.
+     */
+    private void endTurn() {
+        if (leaderboard != null) {
+            leaderboard.update(playerId, this);
+        }
+        if (bus != null) {
+            bus.publish(busGameId, this, turnAction, goldBeforeTurn);
+        }
+    }
+
+    /**
+     * Ranks this game on a leaderboard from its next turn on.
+     *
+     * @param board The leaderboard.
+     * @param id The player's id on the board.
+     */
+    public void rankOn(Leaderboard board, long id) {
+        leaderboard = board;
+        playerId = id;
+    }
+
+    /**
+     * Publishes every turn of this game, from the next one on, to an action bus.
+     * The game must be played on the one thread that publishes to the bus.
+     *
+     * @param bus The bus.
+     * @param gameId The game's id on the bus.
+     */
+    public void publishTo(ActionBus bus, long gameId) {
+        this.bus = bus;
+        busGameId = gameId;
+    }
+
+    /**
+     * Records this game, and every random number its towns draw, in a journal.
+     * Must be called before the game starts.
+     *
+     * @param session The journal handle for this game.
+     */
+    public void journalTo(JournalSession session) {
+        if (cachedTowns > 0) {
+            throw new IllegalStateException("A game on a World map can't be journaled");
+        }
+        journal = session;
+        random = session.watch(random);
+    }
+
+    /**
+     * Plays this game on a World map instead of in towns that each only last until the hunter moves on.
+     * Must be called before the game starts. A game on a World map can't be journaled or saved.
+     *
+     * @param seed The world's seed; the same seed always makes the same towns.
+     * @param cachedTowns How many visited towns the world remembers.
+     */
+    public void exploreWorld(long seed, int cachedTowns) {
+        if (journal != null) {
+            throw new IllegalStateException("A journaled game can't be played on a World map");
+        }
+        if (cachedTowns < 1) {
+            throw new IllegalArgumentException("The world has to remember at least the town the hunter is in");
+        }
+        worldSeed = seed;
+        this.cachedTowns = cachedTowns;
+    }
+
+    /**
+     * Plays this game by other rules than the standard ones. Must be called before the game starts (or before it
+     * is restored; the rules aren't saved with a game).
+     *
+     * @param rules The rules to play by.
+     */
+    public void playBy(Rules rules) {
+        this.rules = rules;
+    }
+
+    public Rules getRules() {
+        return rules;
+    }
+
+    /**
+     * @return The World map the game is played on, or null if it isn't played on one.
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    // Saving and restoring -- used by GameSnapshot
+
+    static final int EASY_MODE = 1;
+    static final int NORMAL_MODE = 2;
+    static final int HARD_MODE = 4;
+    static final int TEST_MODE = 8;
+    static final int SAMURAI_MODE = 16;
+    static final int ITEM_CAN_BREAK = 32;
+
+    /**
+     * @return The mode flags packed into bits.
+     */
+    int getModeFlags() {
+        int flags = 0;
+        if (easyMode) {
+            flags |= EASY_MODE;
+        }
+        if (normalMode) {
+            flags |= NORMAL_MODE;
+        }
+        if (hardMode) {
+            flags |= HARD_MODE;
+        }
+        if (testMode) {
+            flags |= TEST_MODE;
+        }
+        if (samuraiMode) {
+            flags |= SAMURAI_MODE;
+        }
+        if (itemCanBreak) {
+            flags |= ITEM_CAN_BREAK;
+        }
+        return flags;
+    }
+
+    GameRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Puts a saved game back in place of this one.
+     *
+     * @param modeFlags The mode flags, as returned by getModeFlags().
+     * @param turns How many turns had been played.
+     * @param hunter The saved hunter.
+     * @param terrain The terrain around the town the hunter was in.
+     * @param townFlags The town's flags, as returned by Town.getFlags().
+     */
+    void restore(int modeFlags, int turns, Hunter hunter, Terrain terrain, int townFlags) {
+        easyMode = (modeFlags & EASY_MODE) != 0;
+        normalMode = (modeFlags & NORMAL_MODE) != 0;
+        hardMode = (modeFlags & HARD_MODE) != 0;
+        testMode = (modeFlags & TEST_MODE) != 0;
+        samuraiMode = (modeFlags & SAMURAI_MODE) != 0;
+        itemCanBreak = (modeFlags & ITEM_CAN_BREAK) != 0;
+        this.turns = turns;
+        this.hunter = hunter;
+        shop = null;
+        currentTown = new Town(getShop(), terrain, townFlags, rules, events, random);
+        currentTown.hunterArrives(hunter);
+        // a game saved after it ended has already been counted
+        finished = isOver();
+    }
+
+    // Game state
+
+    public boolean isWon() {
+        return hunter.winGame();
+    }
+
+    public boolean isLost() {
+        return currentTown.isGameLost();
+    }
+
+    /**
+     * @return true once the game has been won or lost.
+     */
+    public boolean isOver() {
+        return hunter.winGame() || currentTown.isGameLost();
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public Hunter getHunter() {
+        return hunter;
+    }
+
+    public Town getCurrentTown() {
+        return currentTown;
+    }
+
     public boolean isEasyMode() {
         return easyMode;
     }
@@ -0,0 +1,44 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * The TreasureHunterClient plays a game on a TreasureHunterServer running on this machine. <p>
+ * Whatever is typed goes to the server, and whatever the server sends is shown.
+ */
+public class TreasureHunterClient {
+
+    /**
+     * @param args port (optional)
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = TreasureHunterServer.DEFAULT_PORT;
+        if (args.length > 0) {
+            port = Integer.parseInt(args[0]);
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            Thread typing = new Thread(() -> {
+                try {
+                    copy(System.in, socket.getOutputStream());
+                    socket.shutdownOutput();
+                } catch (IOException e) {
+                    // the server hung up
+                }
+            });
+            typing.setDaemon(true);
+            typing.start();
+            copy(socket.getInputStream(), System.out);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, count);
+            out.flush();
+        }
+    }
+}
@@ -1,8 +1,8 @@
 public class TreasureHunterRunner {
     public static void main(String[] args) {
-        TreasureHunter game = new TreasureHunter();
+        // --diff only redraws the lines of the screen that change from turn to turn
+        boolean diffMode = args.length > 0 && args[0].equals("--diff");
+        TreasureHunter game = new TreasureHunter(diffMode);
         game.play();
     }
-}
-
-
+}
\ No newline at end of file
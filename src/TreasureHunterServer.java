@@ -0,0 +1,268 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The TreasureHunterServer lets many players play Treasure Hunter at once over TCP. <p>
+ * Every connection gets its own TreasureHunter, with its own Hunter, Town and Shop, reading from and
+ * writing to that connection only; the sessions share nothing. <p>
+ * Each session runs on its own virtual thread when the JVM has them (Java 21 and later) and on a
+ * plain thread otherwise. A session only draws its next frame once the last one has been written to
+ * the socket, so a slow client holds up its own game and nobody else's. The number of sessions is
+ * capped; players past the cap are told to come back later. <p>
+ * A player who goes idle in the middle of a game doesn't lose it: the game is parked in a SessionStore,
+ * off the heap, and the player is given a ticket to carry on with next time they connect. <p>
+ * Every game is ranked on one Leaderboard while it is played; players see the top hunters and their own rank
+ * when their game ends, and the game leaves the board when its session does. <p>
+ * The games can be played by rules from a RulesFile, which is watched while the server runs: every game started
+ * or carried on after the file changes is played by the new rules, and games already going keep theirs.
+ */
+public class TreasureHunterServer {
+    // constants
+    public static final int DEFAULT_PORT = 4000;
+    private static final int DEFAULT_MAX_SESSIONS = 10000;
+    private static final int IDLE_TIMEOUT_MILLIS = 30 * 60 * 1000;
+    private static final int LEADERS_SHOWN = 5;
+    // instance variables
+    private ServerSocket serverSocket;
+    private ExecutorService sessions;
+    private Semaphore openSessions;
+    private SessionStore parkedGames;
+    private Leaderboard leaderboard;
+    private AtomicLong lastPlayerId;
+    private RulesFile rulesFile;
+
+    /**
+     * Starts listening on the loopback address.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @param maxSessions How many games can be played at the same time.
+     * @param parkedGames Where games are parked when their players go idle.
+     */
+    public TreasureHunterServer(int port, int maxSessions, SessionStore parkedGames) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        sessions = newSessionExecutor();
+        openSessions = new Semaphore(maxSessions);
+        this.parkedGames = parkedGames;
+        leaderboard = new Leaderboard();
+        lastPlayerId = new AtomicLong();
+    }
+
+    /**
+     * Starts listening on the loopback address, playing every game by the rules in a rules file.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @param maxSessions How many games can be played at the same time.
+     * @param parkedGames Where games are parked when their players go idle.
+     * @param rulesFile The rules the games are played by, or null for the standard rules.
+     */
+    public TreasureHunterServer(int port, int maxSessions, SessionStore parkedGames, RulesFile rulesFile)
+            throws IOException {
+        this(port, maxSessions, parkedGames);
+        this.rulesFile = rulesFile;
+    }
+
+    public TreasureHunterServer(int port, int maxSessions) throws IOException {
+        this(port, maxSessions, new SessionStore());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Accepts players until the server is closed.
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                // the server was closed
+                return;
+            }
+            if (openSessions.tryAcquire()) {
+                sessions.execute(() -> runSession(socket));
+            } else {
+                turnAway(socket);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting players and ends every game in progress.
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+        parkedGames.close();
+    }
+
+    /**
+     * Plays one game for one connection, carrying on a parked game if the player has its ticket.
+     *
+     * @param socket The player's connection.
+     */
+    private void runSession(Socket socket) {
+        try (Socket connection = socket) {
+            connection.setTcpNoDelay(true);
+            connection.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            Scanner scanner = new Scanner(connection.getInputStream(), StandardCharsets.UTF_8);
+            PrintStream out = new PrintStream(new Screen(connection.getOutputStream()), false, StandardCharsets.UTF_8);
+            long playerId = lastPlayerId.incrementAndGet();
+            TreasureHunter game = null;
+            try {
+                game = resumeParkedGame(scanner, out);
+                if (game != null) {
+                    game.rankOn(leaderboard, playerId);
+                    leaderboard.update(playerId, game);
+                    game.resume();
+                } else {
+                    game = new TreasureHunter(scanner, out, GameRandom.unseeded());
+                    game.playBy(getRules());
+                    game.rankOn(leaderboard, playerId);
+                    game.play();
+                }
+                showLeaders(playerId, out);
+            } catch (NoSuchElementException e) {
+                // a game left half played by an idle player is parked; one whose player hung up ends here
+                if (scanner.ioException() instanceof SocketTimeoutException) {
+                    park(game, out);
+                }
+            } finally {
+                // the board only ranks the games being played, so it doesn't grow with every session ever run
+                leaderboard.remove(playerId);
+            }
+        } catch (IOException e) {
+            // the player hung up
+        } finally {
+            openSessions.release();
+        }
+    }
+
+    /**
+     * Asks the player for the ticket of a parked game.
+     *
+     * @return The parked game, or null to start a new one.
+     */
+    private TreasureHunter resumeParkedGame(Scanner scanner, PrintStream out) {
+        out.print("Got a ticket for a parked game? Type it, or just press enter for a new game: ");
+        out.flush();
+        String ticket = scanner.nextLine();
+        if (ticket.isBlank()) {
+            return null;
+        }
+        TreasureHunter game = parkedGames.take(SessionStore.parseTicket(ticket), scanner, out, getRules());
+        if (game == null) {
+            out.println("No game is parked under that ticket.");
+        }
+        return game;
+    }
+
+    /**
+     * Parks a game that was going when its player went idle, and tells them the ticket if they are still listening.
+     */
+    private void park(TreasureHunter game, PrintStream out) {
+        if (game == null || game.getCurrentTown() == null || game.isOver() || !SessionStore.fits(game)) {
+            return;
+        }
+        long ticket = parkedGames.park(game);
+        out.println();
+        out.println("You've been idle too long, so your game is parked. Your ticket is "
+                + SessionStore.ticketText(ticket) + ".");
+        out.flush();
+    }
+
+    /**
+     * @return The rules a game starting now is played by.
+     */
+    private Rules getRules() {
+        if (rulesFile == null) {
+            return Rules.STANDARD;
+        }
+        return rulesFile.get();
+    }
+
+    private void showLeaders(long playerId, PrintStream out) {
+        out.println();
+        out.println("Top hunters:");
+        out.print(leaderboard.infoString(LEADERS_SHOWN));
+        long rank = leaderboard.rank(playerId);
+        if (rank > 0) {
+            out.println("You're ranked #" + rank + " of " + leaderboard.size() + ".");
+        }
+        out.flush();
+    }
+
+    private void turnAway(Socket socket) {
+        try (Socket connection = socket) {
+            connection.getOutputStream().write("The hunt is full, come back later.\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // they're gone anyway
+        }
+    }
+
+    /**
+     * @return An executor that starts a virtual thread per session if this JVM has them, or a plain thread otherwise.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * The game metrics are always visible over JMX; a snapshot of them is also printed every so often if asked for.
+     *
+     * Parked games are kept in direct memory unless a directory is given for them ("-" for none), and the games
+     * are played by the standard rules unless a rules file is given.
+     *
+     * @param args port, max sessions, seconds between metrics snapshots, parked games directory, rules file
+     *             (all optional)
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int maxSessions = DEFAULT_MAX_SESSIONS;
+        if (args.length > 0) {
+            port = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            maxSessions = Integer.parseInt(args[1]);
+        }
+        GameMetrics.register();
+        if (args.length > 2) {
+            GameMetrics.dumpEvery(Long.parseLong(args[2]), System.out);
+        }
+        SessionStore parkedGames = new SessionStore();
+        if (args.length > 3 && !args[3].equals("-")) {
+            parkedGames = new SessionStore(Paths.get(args[3]), SessionStore.DEFAULT_RECORDS_PER_SEGMENT);
+        }
+        RulesFile rulesFile = null;
+        if (args.length > 4) {
+            rulesFile = new RulesFile(Paths.get(args[4]));
+            rulesFile.watch(System.out);
+        }
+        TreasureHunterServer server = new TreasureHunterServer(port, maxSessions, parkedGames, rulesFile);
+        System.out.println("Treasure Hunter is listening on port " + server.getPort());
+        server.serve();
+    }
+}
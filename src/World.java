@@ -0,0 +1,148 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The World class is a map of towns that goes on as far as the hunter cares to walk. <p>
+ * Every town has a place on the map, and everything about it -- its terrain, how tough it is, the treasure
+ * hidden in it and the gold under it -- comes from its own generator, seeded from the world's seed and the
+ * town's place. So a town is only made when the hunter first walks into it, and the same world seed always
+ * makes the same towns, whatever order they are visited in. Brawls and broken items still come from the
+ * game's own generator. <p>
+ * The towns visited most recently are kept, searched and dug as the hunter left them; once more towns have
+ * been visited than the cache holds, the one visited longest ago is forgotten. A forgotten town is made again
+ * exactly as it was first made, so its treasure and gold can be found again, but the world takes the same
+ * memory however far the hunter goes.
+ */
+public class World {
+    // constants
+    public static final int DEFAULT_CACHED_TOWNS = 1024;
+    public static final String DIRECTIONS = "nsew";
+    // instance variables
+    private long seed;
+    private Shop shop;
+    private Rules rules;
+    private double toughness;
+    private EventSink events;
+    private GameRandom random;
+    private Map<Long, Town> towns;
+    private int x;
+    private int y;
+
+    /**
+     * Creates a world with the hunter at 0, 0.
+     *
+     * @param seed The world's seed.
+     * @param cachedTowns How many visited towns are remembered; at least 1.
+     * @param shop The game's shop, which every town shares.
+     * @param toughness How likely each town is to be tough.
+     * @param events Where the townsfolk shout things that can't wait for the latest news.
+     * @param random The game's source of random outcomes, for brawls and broken items.
+     */
+    public World(long seed, int cachedTowns, Shop shop, double toughness, EventSink events, GameRandom random) {
+        this(seed, cachedTowns, shop, Rules.STANDARD, toughness, events, random);
+    }
+
+    /**
+     * Creates a world that plays by other rules than the standard ones, with the hunter at 0, 0.
+     *
+     * @param seed The world's seed.
+     * @param cachedTowns How many visited towns are remembered; at least 1.
+     * @param shop The game's shop, which every town shares.
+     * @param rules The odds of trouble, digging and broken items in every town.
+     * @param toughness How likely each town is to be tough.
+     * @param events Where the townsfolk shout things that can't wait for the latest news.
+     * @param random The game's source of random outcomes, for brawls and broken items.
+     */
+    public World(long seed, int cachedTowns, Shop shop, Rules rules, double toughness, EventSink events,
+                 GameRandom random) {
+        if (cachedTowns < 1) {
+            throw new IllegalArgumentException("The world has to remember at least the town the hunter is in");
+        }
+        this.seed = seed;
+        this.shop = shop;
+        this.rules = rules;
+        this.toughness = toughness;
+        this.events = events;
+        this.random = random;
+        // in access order, so the eldest entry is the town visited longest ago
+        towns = new LinkedHashMap<Long, Town>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Town> eldest) {
+                return size() > cachedTowns;
+            }
+        };
+    }
+
+    /**
+     * @return The town the hunter is in.
+     */
+    public Town here() {
+        return townAt(x, y);
+    }
+
+    /**
+     * Moves the hunter to a neighbouring town.
+     *
+     * @param direction n, s, e or w.
+     * @return The town the hunter is in now.
+     * @throws IllegalArgumentException If the direction isn't one of those.
+     */
+    public Town go(String direction) {
+        if (direction.equals("n")) {
+            y++;
+        } else if (direction.equals("s")) {
+            y--;
+        } else if (direction.equals("w")) {
+            x--;
+        } else if (direction.equals("e")) {
+            x++;
+        } else {
+            throw new IllegalArgumentException("There is no direction " + direction);
+        }
+        return here();
+    }
+
+    /**
+     * @param direction What the player typed.
+     * @return true if it is n, s, e or w.
+     */
+    public static boolean isDirection(String direction) {
+        return direction.length() == 1 && DIRECTIONS.indexOf(direction.charAt(0)) >= 0;
+    }
+
+    /**
+     * @return The town at a place on the map, made if it isn't remembered.
+     */
+    public Town townAt(int x, int y) {
+        long place = place(x, y);
+        Town town = towns.get(place);
+        if (town == null) {
+            town = new Town(shop, rules, toughness, events, random, GameRandom.forGame(seed, place));
+            towns.put(place, town);
+        }
+        return town;
+    }
+
+    /**
+     * @return How many towns are remembered.
+     */
+    public int getCachedTowns() {
+        return towns.size();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    private static long place(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}